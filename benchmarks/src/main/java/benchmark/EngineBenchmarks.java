@@ -0,0 +1,213 @@
+/**
+ * EngineBenchmarks - Benchmarks the hot paths of MinesweeperBoard across board sizes and mine densities
+ * 
+ * Each benchmark gets a board from a state class. Benchmarks that change the board get one that is set
+ * up again before every call, which JMH leaves out of the measured time.
+ * 
+ * Usage: java -jar benchmarks/target/benchmarks.jar EngineBenchmarks -rf json -rff results.json
+ * 
+ * @author Dylan Weber
+ * @version 6/3/2018
+ */
+package benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import game.MinesweeperBoard;
+import game.MinesweeperBoard.FirstRevealMode;
+import game.Tile;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class EngineBenchmarks
+{
+	//A board of every size and density, generated once for each fork
+	@State(Scope.Thread)
+	public static class BoardState
+	{
+		@Param({"9", "100", "1000", "5000"})
+		public int side;
+		@Param({"0.01", "0.1", "0.2"})
+		public double density;
+		
+		MinesweeperBoard board;
+		int numberOfMines;
+		//The row and column of the tile a benchmark reveals
+		final int[] target = new int[2];
+		
+		@Setup(Level.Trial)
+		public void createBoard()
+		{
+			numberOfMines = (int) (side * side * density);
+			board = new MinesweeperBoard(side, side, numberOfMines);
+		}
+	}
+	
+	//A new board before every call, with a mine in the middle so that the first reveal has to move it
+	public static class MineClickState extends BoardState
+	{
+		@Setup(Level.Invocation)
+		public void resetBoard()
+		{
+			board.resetBoard(side, side, numberOfMines);
+			findTile(board, true, -1, target);
+		}
+	}
+	
+	//A new board before every call with the first reveal already made, so that only a single number is revealed
+	public static class SingleRevealState extends BoardState
+	{
+		@Setup(Level.Invocation)
+		public void resetBoard()
+		{
+			board.resetBoard(side, side, numberOfMines);
+			findTile(board, false, -1, target);
+			board.revealTile(target[0], target[1]);
+			if(!findTile(board, false, 1, target))
+			{
+				findTile(board, false, -1, target);
+			}
+		}
+	}
+	
+	//A new board before every call, with an empty tile to open if there is one
+	public static class FloodRevealState extends BoardState
+	{
+		@Setup(Level.Invocation)
+		public void resetBoard()
+		{
+			board.resetBoard(side, side, numberOfMines);
+			if(!findTile(board, false, 0, target))
+			{
+				findTile(board, false, -1, target);
+			}
+		}
+	}
+	
+	//A new board before every call with nothing revealed yet
+	public static class FreshBoardState extends BoardState
+	{
+		@Setup(Level.Invocation)
+		public void resetBoard()
+		{
+			board.resetBoard(side, side, numberOfMines);
+		}
+	}
+	
+	//A new expert board in NO_GUESS mode before every call
+	@State(Scope.Thread)
+	public static class NoGuessState
+	{
+		MinesweeperBoard board;
+		
+		@Setup(Level.Trial)
+		public void createBoard()
+		{
+			board = new MinesweeperBoard(16, 30, 99);
+			board.setFirstRevealMode(FirstRevealMode.NO_GUESS);
+		}
+		
+		@Setup(Level.Invocation)
+		public void resetBoard()
+		{
+			board.resetBoard(16, 30, 99);
+		}
+	}
+	
+	@Benchmark
+	public void resetBoard(BoardState state, Blackhole blackhole)
+	{
+		state.board.resetBoard(state.side, state.side, state.numberOfMines);
+		blackhole.consume(state.board.numberOfTilesLeft());
+	}
+	
+	@Benchmark
+	public void updateSurroundingMineCounts(BoardState state, Blackhole blackhole)
+	{
+		state.board.updateSurroundingMineCounts();
+		blackhole.consume(state.board.getTile(state.side / 2, state.side / 2).getNumberOfSurroundingMines());
+	}
+	
+	//The first reveal of a game moves the mine away if one was clicked
+	@Benchmark
+	public void firstRevealCheck(MineClickState state, Blackhole blackhole)
+	{
+		blackhole.consume(state.board.revealTile(state.target[0], state.target[1]));
+	}
+	
+	@Benchmark
+	public void revealTileSingle(SingleRevealState state, Blackhole blackhole)
+	{
+		blackhole.consume(state.board.revealTile(state.target[0], state.target[1]));
+	}
+	
+	@Benchmark
+	public void revealTileFlood(FloodRevealState state, Blackhole blackhole)
+	{
+		List<Tile> openedTiles = state.board.revealTile(state.target[0], state.target[1]);
+		blackhole.consume(openedTiles.size());
+	}
+	
+	@Benchmark
+	public void revealAllTiles(FreshBoardState state, Blackhole blackhole)
+	{
+		state.board.revealAllTiles();
+		blackhole.consume(state.board.numberOfTilesLeft());
+	}
+	
+	//The first reveal of an expert board in NO_GUESS mode, which searches for a board that needs no guesses
+	@Benchmark
+	public void firstRevealNoGuess(NoGuessState state, Blackhole blackhole)
+	{
+		blackhole.consume(state.board.revealTile(8, 15));
+	}
+	
+	/**
+	 * Searches outwards from the middle of the board for an unrevealed tile
+	 * @param mine - whether the tile should be a mine
+	 * @param surroundingMines - the number of surrounding mines the tile should have, or -1 for any number above zero
+	 * @param position - receives the row and column of the tile that was found
+	 * @return - true if a tile was found
+	 */
+	static boolean findTile(MinesweeperBoard board, boolean mine, int surroundingMines, int[] position)
+	{
+		int rows = board.numberOfRows();
+		int columns = board.numberOfColumns();
+		int middle = rows / 2 * columns + columns / 2;
+		int totalTiles = rows * columns;
+		
+		for(int offset = 0; offset < totalTiles; offset++)
+		{
+			int index = (middle + offset) % totalTiles;
+			Tile tile = board.getTile(index / columns, index % columns);
+			boolean matchesCount = surroundingMines < 0 ? mine || tile.getNumberOfSurroundingMines() > 0 : tile.getNumberOfSurroundingMines() == surroundingMines;
+			
+			if(!tile.isRevealed() && tile.isMine() == mine && (mine || matchesCount))
+			{
+				position[0] = index / columns;
+				position[1] = index % columns;
+				return true;
+			}
+		}
+		
+		return false;
+	}
+}
@@ -0,0 +1,59 @@
+/**
+ * ResetBenchmark - Measures how long MinesweeperBoard.resetBoard takes for different board sizes and mine densities,
+ * including boards that are almost all mines
+ * 
+ * Usage: java -jar benchmarks/target/benchmarks.jar ResetBenchmark -rf json -rff results.json
+ * 
+ * @author Dylan Weber
+ * @version 6/3/2018
+ */
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import game.MinesweeperBoard;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class ResetBenchmark
+{
+	@Param({"9", "100", "500", "1000", "2000"})
+	public int side;
+	@Param({"0.01", "0.1", "0.2", "0.5", "0.8", "0.99"})
+	public double density;
+	
+	private MinesweeperBoard board;
+	private int numberOfMines;
+	
+	@Setup(Level.Trial)
+	public void createBoard()
+	{
+		numberOfMines = (int) (side * side * density);
+		board = new MinesweeperBoard(side, side, numberOfMines);
+	}
+	
+	@Benchmark
+	public void resetBoard(Blackhole blackhole)
+	{
+		board.resetBoard(side, side, numberOfMines);
+		blackhole.consume(board.numberOfTilesLeft());
+	}
+}
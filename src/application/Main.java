@@ -1,38 +1,80 @@
-/**
- * Main - Initiates the program
- * 
- * @author Dylan Weber
- * @version 6/3/2018
- */
-package application;
-	
-import javafx.application.Application;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
-import javafx.scene.image.Image;
-import javafx.stage.Stage;
-
-
-public class Main extends Application
-{
-	@Override
-	public void start(Stage primaryStage) {
-		try {
-			Parent root = FXMLLoader.load(getClass().getClassLoader().getResource("MainUI.fxml"));
-			
-			Scene scene = new Scene(root, 1920, 1080);
-			
-			primaryStage.setScene(scene);
-			primaryStage.setTitle("Minesweeper");
-			primaryStage.getIcons().add(new Image("Mine.png"));
-			primaryStage.show();
-		} catch(Exception e) {
-			e.printStackTrace();
-		}
-	}
-	
-	public static void main(String[] args) {
-		launch(args);
-	}
-}
+/**
+ * Main - Initiates the program
+ * 
+ * @author Dylan Weber
+ * @version 6/3/2018
+ */
+package application;
+	
+import java.lang.management.ManagementFactory;
+
+import controllers.MainUIBuilder;
+import controllers.UIManager;
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.image.Image;
+import javafx.stage.Stage;
+
+
+public class Main extends Application
+{
+	//Set to true to load the window from MainUI.fxml instead of building it in code
+	public static final String FXML_PROPERTY = "minesweeper.fxml";
+	//Set to true to close as soon as the first frame is shown, for timing startup and creating class data archives
+	public static final String EXIT_AFTER_FIRST_FRAME_PROPERTY = "minesweeper.exitAfterFirstFrame";
+	
+	@Override
+	public void start(Stage primaryStage) {
+		try {
+			Parent root;
+			if(Boolean.getBoolean(FXML_PROPERTY))
+			{
+				root = FXMLLoader.load(getClass().getClassLoader().getResource("MainUI.fxml"));
+			}
+			else
+			{
+				root = MainUIBuilder.build(new UIManager());
+			}
+			
+			Scene scene = new Scene(root, 1920, 1080);
+			logFirstFrame(scene);
+			
+			primaryStage.setScene(scene);
+			primaryStage.setTitle("Minesweeper");
+			primaryStage.getIcons().add(new Image("Mine.png", true));
+			primaryStage.show();
+		} catch(Exception e) {
+			e.printStackTrace();
+		}
+	}
+	
+	//Prints how long after the JVM started the first frame was laid out, which is when the window can take clicks
+	private static void logFirstFrame(final Scene scene)
+	{
+		scene.addPostLayoutPulseListener(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				long now = System.currentTimeMillis();
+				scene.removePostLayoutPulseListener(this);
+				
+				//The management classes are only loaded once the frame is up so that they don't slow it down
+				long startTime = ManagementFactory.getRuntimeMXBean().getStartTime();
+				System.out.println("First frame " + (now - startTime) + " ms after start");
+				
+				if(Boolean.getBoolean(EXIT_AFTER_FIRST_FRAME_PROPERTY))
+				{
+					Platform.exit();
+				}
+			}
+		});
+	}
+	
+	public static void main(String[] args) {
+		launch(args);
+	}
+}
@@ -0,0 +1,182 @@
+/**
+ * MainUIBuilder - Builds the same window as MainUI.fxml in code
+ * 
+ * Loading FXML goes through reflection for every element and attribute, which is a large part of
+ * starting up. MainUI.fxml is still the layout to edit in Scene Builder, so changes to it have to be
+ * copied here.
+ * 
+ * @author Dylan Weber
+ * @version 6/3/2018
+ */
+package controllers;
+
+import javafx.event.ActionEvent;
+import javafx.event.EventHandler;
+import javafx.geometry.Insets;
+import javafx.geometry.Orientation;
+import javafx.geometry.Pos;
+import javafx.scene.Parent;
+import javafx.scene.control.Button;
+import javafx.scene.control.ContentDisplay;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.control.SplitPane;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.ColumnConstraints;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.Region;
+import javafx.scene.layout.RowConstraints;
+import javafx.scene.layout.StackPane;
+import javafx.scene.layout.VBox;
+import javafx.scene.shape.StrokeType;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+import javafx.scene.text.TextAlignment;
+
+public class MainUIBuilder
+{
+	private MainUIBuilder() { }
+	
+	//Builds the window, gives its nodes to the controller and initializes it, as FXMLLoader would
+	public static Parent build(final UIManager controller)
+	{
+		//The board, with the win or loss text and the generation progress over it
+		controller.mineGrid = new GridPane();
+		controller.mineGrid.setAlignment(Pos.CENTER);
+		ColumnConstraints column = new ColumnConstraints(40, 40, 40);
+		column.setHgrow(Priority.NEVER);
+		controller.mineGrid.getColumnConstraints().add(column);
+		RowConstraints row = new RowConstraints(40, 40, 40);
+		row.setVgrow(Priority.NEVER);
+		controller.mineGrid.getRowConstraints().add(row);
+		
+		controller.boardPane = new StackPane(controller.mineGrid);
+		controller.boardPane.setPrefSize(599, 252);
+		
+		controller.boardScrollPane = new ScrollPane(controller.boardPane);
+		controller.boardScrollPane.setFitToHeight(true);
+		controller.boardScrollPane.setFitToWidth(true);
+		controller.boardScrollPane.setPrefSize(600, 287);
+		
+		controller.winOrLossText = new Text("INVISIBLE");
+		controller.winOrLossText.setStrokeType(StrokeType.OUTSIDE);
+		controller.winOrLossText.setStrokeWidth(0);
+		controller.winOrLossText.setVisible(false);
+		controller.winOrLossText.setFont(new Font(64));
+		
+		controller.generationProgress = new ProgressIndicator();
+		controller.generationProgress.setMaxSize(64, 64);
+		controller.generationProgress.setVisible(false);
+		
+		StackPane boardArea = new StackPane(controller.boardScrollPane, controller.winOrLossText, controller.generationProgress);
+		boardArea.setPrefSize(200, 150);
+		
+		//The title, the fields for the next board and the reset button
+		Text title = new Text("Minesweeper");
+		title.setStrokeType(StrokeType.OUTSIDE);
+		title.setStrokeWidth(0);
+		title.setTextAlignment(TextAlignment.CENTER);
+		title.setFont(new Font(24));
+		
+		controller.rowsLabel = createLabel("Rows:", 36);
+		controller.rowsField = createField("9");
+		controller.columnsLabel = createLabel("Columns:", 63);
+		controller.columnsField = createField("9");
+		controller.minesLabel = createLabel("# Of Mines:", 81);
+		controller.numberOfMinesField = createField("10");
+		
+		HBox fields = new HBox(50,
+				createFieldBox(controller.rowsLabel, controller.rowsField, 99),
+				createFieldBox(controller.columnsLabel, controller.columnsField, 118),
+				createFieldBox(controller.minesLabel, controller.numberOfMinesField, 125));
+		fields.setAlignment(Pos.CENTER);
+		fields.setPrefSize(598, 44);
+		VBox.setMargin(fields, new Insets(10, 0, 10, 0));
+		
+		controller.undoButton = createButton("UNDO");
+		controller.undoButton.setDisable(true);
+		controller.undoButton.setOnAction(new EventHandler<ActionEvent>()
+		{
+			@Override
+			public void handle(ActionEvent event)
+			{
+				controller.handleUndoButtonAction(event);
+			}
+		});
+		
+		controller.resetButton = createButton("RESET");
+		controller.resetButton.setOnAction(new EventHandler<ActionEvent>()
+		{
+			@Override
+			public void handle(ActionEvent event)
+			{
+				controller.handleResetButtonAction(event);
+			}
+		});
+		
+		controller.redoButton = createButton("REDO");
+		controller.redoButton.setDisable(true);
+		controller.redoButton.setOnAction(new EventHandler<ActionEvent>()
+		{
+			@Override
+			public void handle(ActionEvent event)
+			{
+				controller.handleRedoButtonAction(event);
+			}
+		});
+		
+		HBox buttons = new HBox(10, controller.undoButton, controller.resetButton, controller.redoButton);
+		buttons.setAlignment(Pos.CENTER);
+		buttons.setPrefSize(200, 100);
+		
+		VBox settings = new VBox(title, fields, buttons);
+		settings.setAlignment(Pos.CENTER);
+		settings.setPrefSize(598, 175);
+		
+		SplitPane root = new SplitPane(boardArea, settings);
+		root.setOrientation(Orientation.VERTICAL);
+		root.setDividerPositions(0.7236180904522613);
+		root.setMinSize(Region.USE_PREF_SIZE, Region.USE_PREF_SIZE);
+		root.setMaxSize(Region.USE_PREF_SIZE, Region.USE_PREF_SIZE);
+		root.setPrefSize(600, 400);
+		
+		controller.initialize();
+		return root;
+	}
+	
+	private static Label createLabel(String text, double width)
+	{
+		Label label = new Label(text);
+		label.setPrefSize(width, 20);
+		label.setFont(new Font(14));
+		return label;
+	}
+	
+	private static Button createButton(String text)
+	{
+		Button button = new Button(text);
+		button.setAlignment(Pos.CENTER);
+		button.setContentDisplay(ContentDisplay.CENTER);
+		button.setMnemonicParsing(false);
+		button.setFont(new Font(14));
+		return button;
+	}
+	
+	private static TextField createField(String text)
+	{
+		TextField field = new TextField(text);
+		field.setPrefSize(57, 13);
+		return field;
+	}
+	
+	private static HBox createFieldBox(Label label, TextField field, double width)
+	{
+		HBox box = new HBox(5, label, field);
+		box.setAlignment(Pos.CENTER);
+		box.setPrefSize(width, 44);
+		return box;
+	}
+}
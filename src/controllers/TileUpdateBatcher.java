@@ -0,0 +1,133 @@
+/**
+ * TileUpdateBatcher - Collects the tiles that changed and redraws each of them once per JavaFX pulse
+ * 
+ * @author Dylan Weber
+ * @version 6/3/2018
+ */
+package controllers;
+
+import java.util.Arrays;
+
+import javafx.animation.AnimationTimer;
+import metrics.Metrics;
+import metrics.UiFlushEvent;
+
+class TileUpdateBatcher extends AnimationTimer
+{
+	//Past this many changed tiles it is cheaper to redraw everything than to keep track of each one
+	private static final int MAXIMUM_QUEUED_TILES = 1 << 20;
+	
+	private UIManager controller;
+	private int rows;
+	private int columns;
+	//One bit per tile, set while the tile is waiting to be redrawn
+	private long[] dirtyTiles;
+	private int[] queuedTiles;
+	private int numberOfQueuedTiles;
+	private boolean everythingDirty;
+	
+	TileUpdateBatcher(UIManager controller)
+	{
+		this.controller = controller;
+		this.dirtyTiles = new long[0];
+		this.queuedTiles = new int[64];
+	}
+	
+	//Forgets any pending changes and prepares for a board of a new size
+	void resize(int rows, int columns)
+	{
+		this.rows = rows;
+		this.columns = columns;
+		int words = (int) (((long) rows * columns + 63) / 64);
+		if(dirtyTiles.length != words)
+		{
+			dirtyTiles = new long[words];
+		}
+		else
+		{
+			Arrays.fill(dirtyTiles, 0L);
+		}
+		numberOfQueuedTiles = 0;
+		everythingDirty = false;
+	}
+	
+	//Marks a tile as changed. Marking the same tile several times before the next pulse redraws it once.
+	void markDirty(int row, int column)
+	{
+		if(everythingDirty)
+		{
+			return;
+		}
+		
+		int index = row * columns + column;
+		long bit = 1L << index;
+		if((dirtyTiles[index >>> 6] & bit) != 0)
+		{
+			return;
+		}
+		
+		if(numberOfQueuedTiles == MAXIMUM_QUEUED_TILES)
+		{
+			markAllDirty();
+			return;
+		}
+		
+		dirtyTiles[index >>> 6] |= bit;
+		if(numberOfQueuedTiles == queuedTiles.length)
+		{
+			queuedTiles = Arrays.copyOf(queuedTiles, queuedTiles.length * 2);
+		}
+		queuedTiles[numberOfQueuedTiles++] = index;
+		start();
+	}
+	
+	void markAllDirty()
+	{
+		everythingDirty = true;
+		start();
+	}
+	
+	//Redraws everything that changed since the last pulse
+	@Override
+	public void handle(long now)
+	{
+		flush();
+	}
+	
+	void flush()
+	{
+		UiFlushEvent event = new UiFlushEvent();
+		event.begin();
+		long start = System.nanoTime();
+		int tilesRedrawn = everythingDirty ? rows * columns : numberOfQueuedTiles;
+		
+		if(everythingDirty)
+		{
+			controller.renderAllTiles();
+			Arrays.fill(dirtyTiles, 0L);
+		}
+		else
+		{
+			for(int i = 0; i < numberOfQueuedTiles; i++)
+			{
+				int index = queuedTiles[i];
+				dirtyTiles[index >>> 6] &= ~(1L << index);
+				controller.renderTile(index / columns, index % columns);
+			}
+		}
+		
+		Metrics.UI_FLUSH_TIME.record(System.nanoTime() - start);
+		Metrics.TILES_REDRAWN.record(tilesRedrawn);
+		if(event.shouldCommit())
+		{
+			event.tilesRedrawn = tilesRedrawn;
+			event.fullRedraw = everythingDirty;
+			event.commit();
+		}
+		
+		numberOfQueuedTiles = 0;
+		everythingDirty = false;
+		//Nothing is left to draw, so the timer stops until another tile changes
+		stop();
+	}
+}
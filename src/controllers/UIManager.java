@@ -1,165 +1,708 @@
-/**
- * UIManager - Controls and handles the events that occur on the UI
- * 
- * @author Dylan Weber
- * @version 6/3/2018
- */
-package controllers;
-
-import game.MinesweeperBoard;
-import graphics.TileGraphics;
-import javafx.event.ActionEvent;
-import javafx.fxml.FXML;
-import javafx.scene.control.Button;
-import javafx.scene.control.Label;
-import javafx.scene.control.TextField;
-import javafx.scene.layout.ColumnConstraints;
-import javafx.scene.layout.GridPane;
-import javafx.scene.layout.RowConstraints;
-import javafx.scene.paint.Color;
-import javafx.scene.text.Text;
-
-public class UIManager
-{
-	public static final int DEFAULT_ROWS = 9;
-	public static final int DEFAULT_COLUMNS = 9;
-	public static final int DEFAULT_MINES = 10;
-	
-	@FXML GridPane mineGrid;
-	@FXML Label rowsLabel, columnsLabel, minesLabel;
-	@FXML Text winOrLossText;
-	@FXML TextField rowsField, columnsField, numberOfMinesField;
-	@FXML Button resetButton;
-	
-	MinesweeperBoard board;
-	
-	@FXML public void initialize()
-	{
-		rowsField.setText("" + DEFAULT_ROWS);
-		columnsField.setText("" + DEFAULT_COLUMNS);
-		numberOfMinesField.setText("" + DEFAULT_MINES);
-		
-		//Sets the column and row constraints of the grid to the size of a tile so that no overlaps or gaps appear.
-		double size = TileGraphics.TILE_SIDE_LENGTH + TileGraphics.TILE_BORDER_WIDTH;
-		for(ColumnConstraints col : mineGrid.getColumnConstraints())
-		{
-			col.setMinWidth(size);
-			col.setMaxWidth(size);
-		}
-		
-		for(RowConstraints row: mineGrid.getRowConstraints())
-		{
-			row.setMinHeight(size);
-			row.setMaxHeight(size);
-		}
-		
-		resetBoard(DEFAULT_ROWS, DEFAULT_COLUMNS, DEFAULT_MINES);
-	}
-	
-	@FXML protected void handleResetButtonAction(ActionEvent event)
-	{
-		int rows = 0, columns = 0, numberOfMines = -1;
-		
-		try
-		{
-			rows = Integer.parseInt(rowsField.getText().trim());
-		}
-		catch(NumberFormatException e) { }
-		
-		if(rows <= 0)
-		{
-			rowsLabel.setTextFill(Color.RED);
-		}
-		else
-		{
-			rowsLabel.setTextFill(Color.BLACK);
-		}
-		
-		try
-		{
-			columns = Integer.parseInt(columnsField.getText().trim());
-		}
-		catch(NumberFormatException e) { }
-		
-		if(columns <= 0)
-		{			
-			columnsLabel.setTextFill(Color.RED);
-		}
-		else
-		{
-			columnsLabel.setTextFill(Color.BLACK);
-		}
-		
-		try
-		{
-			numberOfMines = Integer.parseInt(numberOfMinesField.getText().trim());
-		}
-		catch(NumberFormatException e) { }
-		
-		if(numberOfMines < 0)
-		{
-			minesLabel.setTextFill(Color.RED);
-		}
-		else
-		{
-			minesLabel.setTextFill(Color.BLACK);
-		}
-		
-		if(rows > 0 && columns > 0 && numberOfMines >= 0)
-		{
-			resetBoard(rows, columns, numberOfMines);
-		}
-	}
-	
-	public void resetBoard(int rows, int columns, int numberOfMines)
-	{
-		winOrLossText.setVisible(false);
-		
-		if(board == null)
-		{
-			board = new MinesweeperBoard(this, rows, columns, numberOfMines);
-		}
-		else
-		{
-			board.resetBoard(rows, columns, numberOfMines);
-		}
-		
-		mineGrid.getChildren().clear();
-		
-		for(int i = 0; i < board.numberOfRows(); i++)
-		{
-			for(int j = 0; j < board.numberOfColumns(); j++)
-			{
-				mineGrid.add(board.getTile(i, j).getGraphics(), j, i);
-			}
-		}
-		
-		checkForWinOrLoss();
-	}
-	
-	public void revealTile(int row, int column)
-	{
-		board.revealTile(row, column);
-		
-		checkForWinOrLoss();
-	}
-	
-	private void checkForWinOrLoss()
-	{
-		if(board.gameLost())
-		{
-			winOrLossText.setText("GAME OVER!");
-			winOrLossText.setFill(Color.RED);
-			winOrLossText.setVisible(true);
-			board.revealAllTiles();
-		}
-		
-		if(board.gameWon())
-		{
-			winOrLossText.setText("YOU WIN!");
-			winOrLossText.setFill(Color.LIMEGREEN);
-			winOrLossText.setVisible(true);
-			board.revealAllTiles();
-		}
-	}
-}
+/**
+ * UIManager - Controls and handles the events that occur on the UI
+ * 
+ * @author Dylan Weber
+ * @version 6/3/2018
+ */
+package controllers;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import game.BoardListener;
+import game.MinesweeperBoard;
+import game.MinesweeperBoard.FirstRevealMode;
+import game.MoveJournal;
+import game.Tile;
+import game.Tile.FlagState;
+import graphics.BoardCanvas;
+import graphics.TileGraphics;
+import javafx.concurrent.Task;
+import javafx.concurrent.WorkerStateEvent;
+import javafx.event.ActionEvent;
+import javafx.event.EventHandler;
+import javafx.fxml.FXML;
+import javafx.scene.Node;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.control.TextField;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.layout.ColumnConstraints;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.RowConstraints;
+import javafx.scene.layout.StackPane;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Text;
+import metrics.Metrics;
+
+public class UIManager implements BoardListener
+{
+	public static final int DEFAULT_ROWS = 9;
+	public static final int DEFAULT_COLUMNS = 9;
+	public static final int DEFAULT_MINES = 10;
+	//Boards with more tiles than this are drawn on a canvas instead of with a node per tile
+	public static final int CANVAS_RENDERING_THRESHOLD = 2500;
+	//Boards with at least this many tiles are generated in the background so that the window doesn't freeze
+	public static final int ASYNC_GENERATION_THRESHOLD = 1 << 18;
+	
+	//The system property that sets the folder the move journals are written to, the temporary folder by default
+	public static final String JOURNAL_PROPERTY = "minesweeper.journal";
+	//Each session writes its own journal, named after the time it started, so earlier sessions are kept
+	public static final String JOURNAL_PREFIX = "minesweeper-";
+	public static final String JOURNAL_SUFFIX = ".msj";
+	
+	@FXML GridPane mineGrid;
+	@FXML ScrollPane boardScrollPane;
+	@FXML StackPane boardPane;
+	@FXML Label rowsLabel, columnsLabel, minesLabel;
+	@FXML Text winOrLossText;
+	@FXML TextField rowsField, columnsField, numberOfMinesField;
+	@FXML Button resetButton, undoButton, redoButton;
+	@FXML ProgressIndicator generationProgress;
+	
+	MinesweeperBoard board;
+	//A pool of nodes that covers at least the board in the grid. Only the first gridRows by gridColumns are in the grid.
+	TileGraphics[][] tileGraphics;
+	int gridRows, gridColumns;
+	BoardCanvas boardCanvas;
+	TileUpdateBatcher tileUpdates;
+	MoveJournal journal;
+	//Boards are generated one at a time, so a cancelled board stops before the next one starts
+	ExecutorService generator = createGenerator();
+	//The board being generated in the background, or null
+	Task<MinesweeperBoard> generation;
+	//The search for a board needing no guesses that the first reveal of a NO_GUESS game runs in the background, or null
+	Task<Void> firstRevealSearch;
+	//Set after a click made with both buttons held until the second button is released
+	boolean bothButtonsClicked;
+	
+	@FXML public void initialize()
+	{
+		rowsField.setText("" + DEFAULT_ROWS);
+		columnsField.setText("" + DEFAULT_COLUMNS);
+		numberOfMinesField.setText("" + DEFAULT_MINES);
+		
+		tileUpdates = new TileUpdateBatcher(this);
+		
+		//Sets the column and row constraints of the grid to the size of a tile so that no overlaps or gaps appear.
+		double size = TileGraphics.TILE_SIDE_LENGTH + TileGraphics.TILE_BORDER_WIDTH;
+		for(ColumnConstraints col : mineGrid.getColumnConstraints())
+		{
+			col.setMinWidth(size);
+			col.setMaxWidth(size);
+		}
+		
+		for(RowConstraints row: mineGrid.getRowConstraints())
+		{
+			row.setMinHeight(size);
+			row.setMaxHeight(size);
+		}
+		
+		//A press without both buttons held starts a new click, so a chord whose second button was released off the board is forgotten
+		boardScrollPane.addEventFilter(MouseEvent.MOUSE_PRESSED, new EventHandler<MouseEvent>()
+		{
+			@Override
+			public void handle(MouseEvent event)
+			{
+				if(!event.isPrimaryButtonDown() || !event.isSecondaryButtonDown())
+				{
+					bothButtonsClicked = false;
+				}
+			}
+		});
+		
+		resetBoard(DEFAULT_ROWS, DEFAULT_COLUMNS, DEFAULT_MINES);
+	}
+	
+	@FXML protected void handleResetButtonAction(ActionEvent event)
+	{
+		int rows = 0, columns = 0, numberOfMines = -1;
+		
+		try
+		{
+			rows = Integer.parseInt(rowsField.getText().trim());
+		}
+		catch(NumberFormatException e) { }
+		
+		if(rows <= 0)
+		{
+			rowsLabel.setTextFill(Color.RED);
+		}
+		else
+		{
+			rowsLabel.setTextFill(Color.BLACK);
+		}
+		
+		try
+		{
+			columns = Integer.parseInt(columnsField.getText().trim());
+		}
+		catch(NumberFormatException e) { }
+		
+		if(columns <= 0)
+		{			
+			columnsLabel.setTextFill(Color.RED);
+		}
+		else
+		{
+			columnsLabel.setTextFill(Color.BLACK);
+		}
+		
+		try
+		{
+			numberOfMines = Integer.parseInt(numberOfMinesField.getText().trim());
+		}
+		catch(NumberFormatException e) { }
+		
+		if(numberOfMines < 0)
+		{
+			minesLabel.setTextFill(Color.RED);
+		}
+		else
+		{
+			minesLabel.setTextFill(Color.BLACK);
+		}
+		
+		if(rows > 0 && columns > 0 && numberOfMines >= 0)
+		{
+			resetBoard(rows, columns, numberOfMines);
+		}
+	}
+	
+	@FXML protected void handleUndoButtonAction(ActionEvent event)
+	{
+		if(board.undo())
+		{
+			//Undoing the move that ended the game carries on with it
+			winOrLossText.setVisible(false);
+			checkForWinOrLoss();
+		}
+	}
+	
+	@FXML protected void handleRedoButtonAction(ActionEvent event)
+	{
+		if(board.redo())
+		{
+			checkForWinOrLoss();
+		}
+	}
+	
+	public void resetBoard(int rows, int columns, int numberOfMines)
+	{
+		//A new reset replaces one that is still being generated
+		if(generation != null)
+		{
+			generation.cancel(true);
+			generation = null;
+			generationProgress.setVisible(false);
+		}
+		if(firstRevealSearch != null)
+		{
+			firstRevealSearch.cancel(true);
+			firstRevealSearch = null;
+			generationProgress.setVisible(false);
+		}
+		
+		if(board != null && (long) rows * columns >= ASYNC_GENERATION_THRESHOLD)
+		{
+			generateInBackground(rows, columns, numberOfMines);
+			return;
+		}
+		
+		long start = System.nanoTime();
+		if(board == null)
+		{
+			board = new MinesweeperBoard(this, rows, columns, numberOfMines);
+			board.setParallelGeneration(true);
+			board.setParallelReveal(true);
+			board.setUndoHistory(true);
+			journal = openJournal();
+			board.setJournal(journal);
+			dumpMetricsOnExit();
+		}
+		//Resets the first board too, so that the journal starts with the board that is played
+		board.resetBoard(rows, columns, numberOfMines);
+		
+		showBoard();
+		Metrics.UI_RESET_TIME.record(System.nanoTime() - start);
+	}
+	
+	/**
+	 * Generates a large board on the generator thread while the current board stays on screen and playable.
+	 * The new board is only swapped in once it is complete, on the JavaFX application thread.
+	 */
+	private void generateInBackground(final int rows, final int columns, final int numberOfMines)
+	{
+		final FirstRevealMode firstRevealMode = board.getFirstRevealMode();
+		final Task<MinesweeperBoard> task = new Task<MinesweeperBoard>()
+		{
+			@Override
+			protected MinesweeperBoard call()
+			{
+				MinesweeperBoard nextBoard = new MinesweeperBoard(1, 1, 0);
+				nextBoard.setParallelGeneration(true);
+				nextBoard.setParallelReveal(true);
+				nextBoard.setUndoHistory(true);
+				nextBoard.setFirstRevealMode(firstRevealMode);
+				nextBoard.resetBoard(rows, columns, numberOfMines);
+				return nextBoard;
+			}
+		};
+		
+		task.setOnSucceeded(new EventHandler<WorkerStateEvent>()
+		{
+			@Override
+			public void handle(WorkerStateEvent event)
+			{
+				if(generation == task)
+				{
+					generation = null;
+					swapInBoard(task.getValue());
+				}
+			}
+		});
+		task.setOnFailed(new EventHandler<WorkerStateEvent>()
+		{
+			@Override
+			public void handle(WorkerStateEvent event)
+			{
+				if(generation == task)
+				{
+					generation = null;
+					generationProgress.setVisible(false);
+					task.getException().printStackTrace();
+				}
+			}
+		});
+		
+		generation = task;
+		generationProgress.setVisible(true);
+		generator.execute(task);
+	}
+	
+	//Replaces the board with one that was generated in the background
+	private void swapInBoard(MinesweeperBoard nextBoard)
+	{
+		long start = System.nanoTime();
+		generationProgress.setVisible(false);
+		
+		board.setListener(null);
+		board.setJournal(null);
+		nextBoard.setListener(this);
+		if(journal != null)
+		{
+			nextBoard.setJournal(journal);
+			journal.recordReset(nextBoard.numberOfRows(), nextBoard.numberOfColumns(), nextBoard.getNumberOfMines(), nextBoard.getSeed(),
+					nextBoard.usesParallelGeneration(), nextBoard.getFirstRevealMode());
+		}
+		board = nextBoard;
+		
+		showBoard();
+		Metrics.UI_RESET_TIME.record(System.nanoTime() - start);
+	}
+	
+	//Draws the board from scratch after it has been reset or replaced
+	private void showBoard()
+	{
+		winOrLossText.setVisible(false);
+		
+		//Every tile is drawn below, so changes made while resetting don't need to be drawn again
+		tileUpdates.resize(board.numberOfRows(), board.numberOfColumns());
+		
+		if(usesCanvas())
+		{
+			//The nodes of the last small board stay in the grid, which isn't shown, so they can be reused by the next one
+			if(boardCanvas == null)
+			{
+				boardCanvas = new BoardCanvas(this, boardScrollPane);
+			}
+			boardCanvas.setBoard(board);
+			boardPane.getChildren().setAll(boardCanvas);
+		}
+		else
+		{
+			boardPane.getChildren().setAll(mineGrid);
+			updateTileGraphics();
+		}
+		
+		checkForWinOrLoss();
+	}
+	
+	//Creates the thread that generates large boards. It is a daemon so that it never keeps the program open.
+	private static ExecutorService createGenerator()
+	{
+		return Executors.newSingleThreadExecutor(new ThreadFactory()
+		{
+			@Override
+			public Thread newThread(Runnable runnable)
+			{
+				Thread thread = new Thread(runnable, "Board generator");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+	
+	//Opens a new journal for this session that every move is recorded in, which is closed when the program exits
+	private MoveJournal openJournal()
+	{
+		String folder = System.getProperty(JOURNAL_PROPERTY, System.getProperty("java.io.tmpdir"));
+		String started = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+		try
+		{
+			Path path = Files.createTempFile(Paths.get(folder), JOURNAL_PREFIX + started + "-", JOURNAL_SUFFIX);
+			final MoveJournal journal = new MoveJournal(path);
+			System.out.println("Recording moves in " + path);
+			Runtime.getRuntime().addShutdownHook(new Thread(new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					try
+					{
+						journal.close();
+					}
+					catch(IOException e)
+					{
+						e.printStackTrace();
+					}
+				}
+			}));
+			return journal;
+		}
+		catch(IOException e)
+		{
+			e.printStackTrace();
+			return null;
+		}
+	}
+	
+	//Writes the metrics to the file named by the minesweeper.metrics system property when the program exits, if it is set
+	private void dumpMetricsOnExit()
+	{
+		final String path = System.getProperty(Metrics.METRICS_FILE_PROPERTY);
+		if(path == null)
+		{
+			return;
+		}
+		
+		Runtime.getRuntime().addShutdownHook(new Thread(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				try
+				{
+					Metrics.dump(Paths.get(path));
+				}
+				catch(IOException e)
+				{
+					e.printStackTrace();
+				}
+			}
+		}));
+	}
+	
+	/**
+	 * Fills the grid with a TileGraphics node for every tile. The nodes are kept in a pool that only grows, so
+	 * when the size of the board changes only the nodes that are now outside or inside the board are removed
+	 * from or added to the grid, and nodes are only created for tiles that have never been shown before.
+	 */
+	private void updateTileGraphics()
+	{
+		int rows = board.numberOfRows(), columns = board.numberOfColumns();
+		
+		//Each row of the pool grows on its own, so a long thin board followed by a tall narrow one doesn't fill in the square between
+		if(tileGraphics == null || rows > tileGraphics.length)
+		{
+			tileGraphics = tileGraphics == null ? new TileGraphics[rows][] : Arrays.copyOf(tileGraphics, rows);
+		}
+		for(int i = 0; i < rows; i++)
+		{
+			if(tileGraphics[i] == null || columns > tileGraphics[i].length)
+			{
+				tileGraphics[i] = tileGraphics[i] == null ? new TileGraphics[columns] : Arrays.copyOf(tileGraphics[i], columns);
+			}
+		}
+		
+		//Removes the nodes that are outside of the new board
+		Set<Node> removedNodes = new HashSet<>();
+		for(int i = 0; i < gridRows; i++)
+		{
+			for(int j = i < rows ? columns : 0; j < gridColumns; j++)
+			{
+				removedNodes.add(tileGraphics[i][j]);
+			}
+		}
+		if(!removedNodes.isEmpty())
+		{
+			mineGrid.getChildren().removeAll(removedNodes);
+		}
+		
+		//Tiles are views of a position on the board, so a node keeps showing the right tile after a reset
+		List<Node> addedNodes = new ArrayList<>();
+		for(int i = 0; i < rows; i++)
+		{
+			for(int j = 0; j < columns; j++)
+			{
+				if(tileGraphics[i][j] == null)
+				{
+					tileGraphics[i][j] = new TileGraphics(this, board.getTile(i, j));
+				}
+				else if(tileGraphics[i][j].getTile().getParentBoard() != board)
+				{
+					//The board was replaced by one generated in the background
+					tileGraphics[i][j].setTile(board.getTile(i, j));
+				}
+				else
+				{
+					tileGraphics[i][j].updateGraphics();
+				}
+				
+				if(i >= gridRows || j >= gridColumns)
+				{
+					GridPane.setConstraints(tileGraphics[i][j], j, i);
+					addedNodes.add(tileGraphics[i][j]);
+				}
+			}
+		}
+		mineGrid.getChildren().addAll(addedNodes);
+		
+		gridRows = rows;
+		gridColumns = columns;
+	}
+	
+	private boolean usesCanvas()
+	{
+		return (long) board.numberOfRows() * board.numberOfColumns() > CANVAS_RENDERING_THRESHOLD;
+	}
+	
+	/**
+	 * Returns the button that a click on a tile acts as. Releasing one of the left and right buttons while the
+	 * other is still held acts as a middle click, and releasing the second one afterwards does nothing.
+	 * If the second one is released off the board instead, the next press forgets the chord.
+	 */
+	public MouseButton clickedButton(MouseEvent event)
+	{
+		if(event.isPrimaryButtonDown() || event.isSecondaryButtonDown())
+		{
+			bothButtonsClicked = true;
+			return MouseButton.MIDDLE;
+		}
+		if(bothButtonsClicked)
+		{
+			bothButtonsClicked = false;
+			return MouseButton.NONE;
+		}
+		return event.getButton();
+	}
+	
+	//Reveals the tile on a left click, cycles through its flags on a right click and chords on a middle click
+	public void handleTileClick(Tile tile, MouseButton button)
+	{
+		if(button == MouseButton.MIDDLE)
+		{
+			if(tile.isRevealed() && !board.gameWon() && !board.gameLost())
+			{
+				chordTile(tile.getRow(), tile.getColumn());
+			}
+		}
+		else if(button != MouseButton.NONE && !tile.isRevealed() && !board.gameWon() && !board.gameLost())
+		{
+			if(button == MouseButton.PRIMARY)
+			{
+				if(tile.getFlagState() != FlagState.FLAG && tile.getFlagState() != FlagState.QUESTION_MARK)
+				{
+					revealTile(tile.getRow(), tile.getColumn());
+				}
+			}
+			else //Secondary mouse button
+			{
+				switch(tile.getFlagState())
+				{
+					case NONE:
+						tile.setFlagState(FlagState.FLAG);
+						break;
+					case FLAG:
+						tile.setFlagState(FlagState.QUESTION_MARK);
+						break;
+					case QUESTION_MARK:
+						tile.setFlagState(FlagState.NONE);
+						break;
+					default:
+						break;
+				}
+				updateUndoButtons();
+			}
+		}
+	}
+	
+	public void revealTile(int row, int column)
+	{
+		//Nothing is revealed until the first reveal has found its board
+		if(firstRevealSearch != null)
+		{
+			return;
+		}
+		Runnable search = board.prepareFirstReveal(row, column);
+		if(search != null)
+		{
+			searchInBackground(search, row, column);
+			return;
+		}
+		
+		board.revealTile(row, column);
+		
+		checkForWinOrLoss();
+	}
+	
+	/**
+	 * Runs the search for a board needing no guesses on the generator thread, so that the window doesn't
+	 * freeze while the first reveal of a NO_GUESS game looks for one, then makes the reveal with what it found.
+	 */
+	private void searchInBackground(final Runnable search, final int row, final int column)
+	{
+		final MinesweeperBoard searchedBoard = board;
+		final Task<Void> task = new Task<Void>()
+		{
+			@Override
+			protected Void call()
+			{
+				search.run();
+				return null;
+			}
+		};
+		
+		task.setOnSucceeded(new EventHandler<WorkerStateEvent>()
+		{
+			@Override
+			public void handle(WorkerStateEvent event)
+			{
+				if(firstRevealSearch == task)
+				{
+					firstRevealSearch = null;
+					generationProgress.setVisible(generation != null);
+					if(board == searchedBoard)
+					{
+						revealTile(row, column);
+					}
+				}
+			}
+		});
+		task.setOnFailed(new EventHandler<WorkerStateEvent>()
+		{
+			@Override
+			public void handle(WorkerStateEvent event)
+			{
+				if(firstRevealSearch == task)
+				{
+					firstRevealSearch = null;
+					generationProgress.setVisible(generation != null);
+					task.getException().printStackTrace();
+				}
+			}
+		});
+		
+		firstRevealSearch = task;
+		generationProgress.setVisible(true);
+		generator.execute(task);
+	}
+	
+	//Reveals everything around a number as one move, so the game is only checked and redrawn once
+	public void chordTile(int row, int column)
+	{
+		board.chordTile(row, column);
+		
+		checkForWinOrLoss();
+	}
+	
+	//Called by the board whenever the state of a tile changes. The tile is redrawn on the next pulse.
+	@Override
+	public void tileChanged(int row, int column)
+	{
+		//The board changes tiles while it is being created, before anything can be drawn
+		if(tileUpdates != null && board != null)
+		{
+			tileUpdates.markDirty(row, column);
+		}
+	}
+	
+	//Redraws a single tile, called once per pulse for each tile that changed
+	void renderTile(int row, int column)
+	{
+		if(usesCanvas())
+		{
+			boardCanvas.redrawTile(row, column);
+		}
+		else
+		{
+			tileGraphics[row][column].updateGraphics();
+		}
+	}
+	
+	//Redraws every tile, called when too many tiles changed in a single pulse to track them one by one
+	void renderAllTiles()
+	{
+		if(usesCanvas())
+		{
+			boardCanvas.redrawAll();
+		}
+		else
+		{
+			for(int i = 0; i < board.numberOfRows(); i++)
+			{
+				for(int j = 0; j < board.numberOfColumns(); j++)
+				{
+					tileGraphics[i][j].updateGraphics();
+				}
+			}
+		}
+	}
+	
+	private void checkForWinOrLoss()
+	{
+		if(board.gameLost())
+		{
+			winOrLossText.setText("GAME OVER!");
+			winOrLossText.setFill(Color.RED);
+			winOrLossText.setVisible(true);
+			//Every tile changes, so they are redrawn together instead of being queued one at a time
+			tileUpdates.markAllDirty();
+			board.revealAllTiles();
+		}
+		
+		if(board.gameWon())
+		{
+			winOrLossText.setText("YOU WIN!");
+			winOrLossText.setFill(Color.LIMEGREEN);
+			winOrLossText.setVisible(true);
+			//Every tile changes, so they are redrawn together instead of being queued one at a time
+			tileUpdates.markAllDirty();
+			board.revealAllTiles();
+		}
+		
+		updateUndoButtons();
+	}
+	
+	//Only lets the player undo or redo when there is a move to undo or redo
+	private void updateUndoButtons()
+	{
+		undoButton.setDisable(!board.canUndo());
+		redoButton.setDisable(!board.canRedo());
+	}
+}
@@ -0,0 +1,172 @@
+/**
+ * BoardFile - Saves and loads the mines of a board in a compact binary file
+ * 
+ * The file is a 32 byte header followed by one bit per tile, set for mines:
+ *   int    magic number ("MSWP")
+ *   int    format version
+ *   int    rows
+ *   int    columns
+ *   int    number of mines
+ *   long   seed the board was generated from
+ *   int    reserved, always 0
+ *   long[] mine bitmap, (rows * columns + 63) / 64 longs, tile i is bit (i % 64) of long i / 64
+ * 
+ * A 10000 x 10000 board takes about 12 MB. Large files are memory-mapped instead of read into the heap.
+ * 
+ * @author Dylan Weber
+ * @version 6/3/2018
+ */
+package game;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public final class BoardFile
+{
+	public static final int MAGIC_NUMBER = 0x4D535750;
+	public static final int VERSION = 1;
+	public static final int HEADER_SIZE = 32;
+	//Files with a bitmap bigger than this are memory-mapped
+	private static final long MAPPING_THRESHOLD = 1 << 20;
+	//The bitmap is written through a buffer of this many longs
+	private static final int WRITE_BUFFER_LONGS = 1 << 16;
+	
+	private BoardFile() { }
+	
+	//Writes the size, seed and mines of a board. Revealed tiles and flags are not saved.
+	public static void write(MinesweeperBoard board, Path path) throws IOException
+	{
+		try(FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE))
+		{
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			header.putInt(MAGIC_NUMBER).putInt(VERSION).putInt(board.numberOfRows()).putInt(board.numberOfColumns());
+			header.putInt(board.getNumberOfMines()).putLong(board.getSeed()).putInt(0);
+			header.flip();
+			writeFully(channel, header);
+			
+			byte[] cells = board.getCells();
+			int totalTiles = board.numberOfRows() * board.numberOfColumns();
+			ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_LONGS * 8);
+			
+			for(int word = 0; word * 64 < totalTiles; word++)
+			{
+				long bits = 0;
+				int end = Math.min(word * 64 + 64, totalTiles);
+				for(int index = word * 64; index < end; index++)
+				{
+					if(Cells.isMine(cells[index]))
+					{
+						bits |= 1L << index;
+					}
+				}
+				
+				if(!buffer.hasRemaining())
+				{
+					buffer.flip();
+					writeFully(channel, buffer);
+					buffer.clear();
+				}
+				buffer.putLong(bits);
+			}
+			
+			buffer.flip();
+			writeFully(channel, buffer);
+		}
+	}
+	
+	private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException
+	{
+		while(buffer.hasRemaining())
+		{
+			channel.write(buffer);
+		}
+	}
+	
+	//Replaces the board with the one saved in the file. The board keeps its listener and settings.
+	public static void read(Path path, MinesweeperBoard board) throws IOException
+	{
+		try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+		{
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			while(header.hasRemaining())
+			{
+				if(channel.read(header) < 0)
+				{
+					throw new IOException("The board file ends inside its header");
+				}
+			}
+			header.flip();
+			
+			if(header.getInt() != MAGIC_NUMBER)
+			{
+				throw new IOException("Not a board file");
+			}
+			int version = header.getInt();
+			if(version != VERSION)
+			{
+				throw new IOException("Unsupported board file version " + version);
+			}
+			int rows = header.getInt();
+			int columns = header.getInt();
+			int numberOfMines = header.getInt();
+			long seed = header.getLong();
+			
+			long totalTiles = (long) rows * columns;
+			if(rows <= 0 || columns <= 0 || totalTiles > Integer.MAX_VALUE || numberOfMines < 0 || numberOfMines > totalTiles)
+			{
+				throw new IOException("Invalid board size " + rows + "x" + columns + " with " + numberOfMines + " mines");
+			}
+			
+			long bitmapSize = (totalTiles + 63) / 64 * 8;
+			if(channel.size() < HEADER_SIZE + bitmapSize)
+			{
+				throw new IOException("The board file is missing part of its mines");
+			}
+			
+			ByteBuffer bitmap;
+			if(bitmapSize >= MAPPING_THRESHOLD)
+			{
+				MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, bitmapSize);
+				bitmap = mapped;
+			}
+			else
+			{
+				bitmap = ByteBuffer.allocate((int) bitmapSize);
+				channel.position(HEADER_SIZE);
+				while(bitmap.hasRemaining() && channel.read(bitmap) >= 0) { }
+				bitmap.flip();
+			}
+			
+			LongBuffer mineBitmap = bitmap.asLongBuffer();
+			long minesInBitmap = countMines(mineBitmap, totalTiles);
+			if(minesInBitmap != numberOfMines)
+			{
+				throw new IOException("The board file has " + numberOfMines + " mines in its header but " + minesInBitmap + " in its bitmap");
+			}
+			board.loadMines(rows, columns, numberOfMines, seed, mineBitmap);
+		}
+	}
+	
+	//Counts the set bits of the first totalTiles tiles of a mine bitmap. Bits past the last tile are ignored.
+	private static long countMines(LongBuffer mineBitmap, long totalTiles)
+	{
+		long mines = 0;
+		int words = (int) ((totalTiles + 63) / 64);
+		for(int word = 0; word < words; word++)
+		{
+			long bits = mineBitmap.get(word);
+			int tilesInWord = (int) Math.min(64, totalTiles - word * 64L);
+			if(tilesInWord < 64)
+			{
+				bits &= (1L << tilesInWord) - 1;
+			}
+			mines += Long.bitCount(bits);
+		}
+		return mines;
+	}
+}
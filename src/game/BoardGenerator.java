@@ -0,0 +1,305 @@
+/**
+ * BoardGenerator - Places mines and counts surrounding mines on the packed cells of a board
+ * 
+ * Large boards can be generated in parallel. The rows are split into bands and each band places
+ * its share of the mines with its own random stream, then counts the mines around its own tiles
+ * by also looking at the row above and below it. Every band only writes to its own tiles, so the
+ * bands never need to wait for each other.
+ * 
+ * Generation stops with a CancellationException when the thread that started it is interrupted,
+ * so a board that is no longer wanted doesn't keep the processors busy. The bands can't see that
+ * thread's interrupt while it waits for them, so it tells them through a shared flag instead.
+ * 
+ * @author Dylan Weber
+ * @version 6/3/2018
+ */
+package game;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+final class BoardGenerator
+{
+	//Boards smaller than this are generated faster on one thread than it takes to hand out the work
+	static final int PARALLEL_GENERATION_THRESHOLD = 1 << 20;
+	//Enough bands for the fork-join pool to balance the work on any machine. The number doesn't depend on
+	//the machine, so a seed generates the same board everywhere.
+	private static final int PARALLEL_BANDS = 256;
+	
+	//How many random picks are made between checks for cancellation
+	private static final int PICKS_PER_CANCELLATION_CHECK = 1 << 16;
+	
+	private BoardGenerator() { }
+	
+	//The thread a board is being generated for, and whether the pool threads working on it have been told to stop
+	static final class Generation
+	{
+		private final Thread owner;
+		private volatile boolean cancelled;
+		
+		Generation(Thread owner)
+		{
+			this.owner = owner;
+		}
+		
+		//Throws a CancellationException if the generation has been cancelled or its thread interrupted
+		void checkCancelled()
+		{
+			if(cancelled || owner.isInterrupted())
+			{
+				throw new CancellationException("Board generation was cancelled");
+			}
+		}
+	}
+	
+	/**
+	 * Chooses numberOfMines distinct tiles between from (inclusive) and to (exclusive) to be mines and clears the rest.
+	 * Random tiles are picked until an unchosen one is found, which needs fewer than two picks per mine on average
+	 * as long as at most half of the tiles are chosen. Denser ranges start full of mines and pick the tiles to clear
+	 * instead, so the cost depends on the number of mines (or the number of free tiles) rather than the size of the board.
+	 * @return - The free tiles if they were the ones picked, or null if the mines were picked
+	 */
+	static int[] placeMines(byte[] cells, int from, int to, int numberOfMines, SplittableRandom mineChooser)
+	{
+		return placeMines(cells, from, to, numberOfMines, mineChooser, new Generation(Thread.currentThread()));
+	}
+	
+	//Places the mines as above, stopping when the generation is cancelled rather than when the thread doing the work is interrupted
+	static int[] placeMines(byte[] cells, int from, int to, int numberOfMines, SplittableRandom mineChooser, Generation generation)
+	{
+		int totalTiles = to - from;
+		boolean placingMines = numberOfMines <= totalTiles / 2;
+		int tilesToChoose = placingMines ? numberOfMines : totalTiles - numberOfMines;
+		int[] freeTiles = placingMines ? null : new int[tilesToChoose];
+		
+		Arrays.fill(cells, from, to, placingMines ? 0 : (byte) Cells.MINE);
+		
+		for(int picks = 1; tilesToChoose > 0; picks++)
+		{
+			if(picks % PICKS_PER_CANCELLATION_CHECK == 0)
+			{
+				generation.checkCancelled();
+			}
+			
+			int index = from + mineChooser.nextInt(totalTiles);
+			
+			//Only tiles that haven't been chosen yet still have their original state
+			if(Cells.isMine(cells[index]) != placingMines)
+			{
+				cells[index] = Cells.withMine(cells[index], placingMines);
+				tilesToChoose--;
+				if(freeTiles != null)
+				{
+					freeTiles[tilesToChoose] = index;
+				}
+			}
+		}
+		
+		return freeTiles;
+	}
+	
+	/**
+	 * Sets the number of surrounding mines for the tiles in rows firstRow (inclusive) to lastRow (exclusive).
+	 * Each row first adds up the mines in every column of itself and the rows just above and below it, and
+	 * then slides a window of three of those column sums along the row. Every tile is read a fixed number of
+	 * times in order, nothing outside the rows is written, and only one array the width of a row is allocated.
+	 */
+	static void countSurroundingMines(byte[] cells, int rows, int columns, int firstRow, int lastRow)
+	{
+		countSurroundingMines(cells, rows, columns, firstRow, lastRow, new Generation(Thread.currentThread()));
+	}
+	
+	//Counts the surrounding mines as above, stopping when the generation is cancelled rather than when the thread doing the work is interrupted
+	static void countSurroundingMines(byte[] cells, int rows, int columns, int firstRow, int lastRow, Generation generation)
+	{
+		//Padded by one column on each side so that the window never needs a bounds check
+		int[] columnMines = new int[columns + 2];
+		
+		for(int i = firstRow; i < lastRow; i++)
+		{
+			generation.checkCancelled();
+			int rowStart = i * columns;
+			for(int j = 0; j < columns; j++)
+			{
+				int mines = (cells[rowStart + j] & Cells.MINE);
+				if(i > 0)
+				{
+					mines += cells[rowStart - columns + j] & Cells.MINE;
+				}
+				if(i < rows - 1)
+				{
+					mines += cells[rowStart + columns + j] & Cells.MINE;
+				}
+				columnMines[j + 1] = mines >>> 4;
+			}
+			
+			for(int j = 0; j < columns; j++)
+			{
+				byte cell = cells[rowStart + j];
+				int count = columnMines[j] + columnMines[j + 1] + columnMines[j + 2] - ((cell & Cells.MINE) >>> 4);
+				cells[rowStart + j] = Cells.withNumberOfSurroundingMines(cell, count);
+			}
+		}
+	}
+	
+	//Counts the surrounding mines of every tile with each band of rows on its own thread
+	static void countSurroundingMinesInParallel(byte[] cells, int rows, int columns)
+	{
+		int[] bandStarts = splitIntoBands(rows);
+		Generation generation = new Generation(Thread.currentThread());
+		runBands(new BandTask(generation, cells, columns, bandStarts, null, null, 0, bandStarts.length - 1, true), generation);
+	}
+	
+	/**
+	 * Runs bands on the common pool and waits for them. Unlike ForkJoinPool.invoke, which hides an interrupt until
+	 * the task is done, the wait ends when this thread is interrupted. The bands are then told to stop, and a
+	 * CancellationException is thrown once none of them is still writing to the cells.
+	 */
+	private static void runBands(BandTask bands, Generation generation)
+	{
+		ForkJoinTask<Void> running = ForkJoinPool.commonPool().submit(bands);
+		try
+		{
+			running.get();
+		}
+		catch(InterruptedException e)
+		{
+			generation.cancelled = true;
+			running.quietlyJoin();
+			//Keeps the thread interrupted, as it would be after a cancellation noticed by the bands themselves
+			Thread.currentThread().interrupt();
+			throw new CancellationException("Board generation was cancelled");
+		}
+		catch(ExecutionException e)
+		{
+			if(e.getCause() instanceof RuntimeException)
+			{
+				throw (RuntimeException) e.getCause();
+			}
+			if(e.getCause() instanceof Error)
+			{
+				throw (Error) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+	
+	//Returns the first row of each band, followed by the number of rows
+	private static int[] splitIntoBands(int rows)
+	{
+		int numberOfBands = Math.min(rows, PARALLEL_BANDS);
+		int rowsPerBand = (rows + numberOfBands - 1) / numberOfBands;
+		numberOfBands = (rows + rowsPerBand - 1) / rowsPerBand;
+		
+		int[] bandStarts = new int[numberOfBands + 1];
+		for(int band = 0; band < numberOfBands; band++)
+		{
+			bandStarts[band] = band * rowsPerBand;
+		}
+		bandStarts[numberOfBands] = rows;
+		return bandStarts;
+	}
+	
+	/**
+	 * Places exactly numberOfMines mines and counts the surrounding mines using the common fork-join pool.
+	 * Each band gets its share of the mines in proportion to its size, with the leftover mines handed to
+	 * randomly picked bands, and then places them uniformly within itself.
+	 */
+	static void generateInParallel(byte[] cells, int rows, int columns, int numberOfMines, SplittableRandom mineChooser)
+	{
+		int[] bandStarts = splitIntoBands(rows);
+		int numberOfBands = bandStarts.length - 1;
+		int[] bandMines = new int[numberOfBands];
+		SplittableRandom[] bandRandoms = new SplittableRandom[numberOfBands];
+		long totalTiles = (long) rows * columns;
+		int assignedMines = 0;
+		
+		for(int band = 0; band < numberOfBands; band++)
+		{
+			long bandTiles = (long) (bandStarts[band + 1] - bandStarts[band]) * columns;
+			bandMines[band] = (int) (numberOfMines * bandTiles / totalTiles);
+			assignedMines += bandMines[band];
+			//Splitting in a fixed order keeps the board the same for the same starting random
+			bandRandoms[band] = mineChooser.split();
+		}
+		
+		//Fewer mines are left over than there are bands. A random tile picks the band that gets each one.
+		while(assignedMines < numberOfMines)
+		{
+			int band = bandOfRow(bandStarts, (int) (mineChooser.nextLong(totalTiles) / columns));
+			if(bandMines[band] < (bandStarts[band + 1] - bandStarts[band]) * columns)
+			{
+				bandMines[band]++;
+				assignedMines++;
+			}
+		}
+		
+		Generation generation = new Generation(Thread.currentThread());
+		runBands(new BandTask(generation, cells, columns, bandStarts, bandMines, bandRandoms, 0, numberOfBands, false), generation);
+		//Counting reads the mines in the neighbouring bands, so it starts once all of them are placed
+		runBands(new BandTask(generation, cells, columns, bandStarts, bandMines, bandRandoms, 0, numberOfBands, true), generation);
+	}
+	
+	private static int bandOfRow(int[] bandStarts, int row)
+	{
+		int band = Arrays.binarySearch(bandStarts, row);
+		return band >= 0 ? band : -band - 2;
+	}
+	
+	//Splits a range of bands in half until a single band is left, then places its mines or counts its tiles
+	private static class BandTask extends RecursiveAction
+	{
+		private static final long serialVersionUID = 1L;
+		
+		//The generation the band is part of, which is cancelled through its thread
+		private final Generation generation;
+		private final byte[] cells;
+		private final int columns;
+		private final int[] bandStarts, bandMines;
+		private final SplittableRandom[] bandRandoms;
+		private final int firstBand, lastBand;
+		private final boolean counting;
+		
+		BandTask(Generation generation, byte[] cells, int columns, int[] bandStarts, int[] bandMines, SplittableRandom[] bandRandoms, int firstBand, int lastBand, boolean counting)
+		{
+			this.generation = generation;
+			this.cells = cells;
+			this.columns = columns;
+			this.bandStarts = bandStarts;
+			this.bandMines = bandMines;
+			this.bandRandoms = bandRandoms;
+			this.firstBand = firstBand;
+			this.lastBand = lastBand;
+			this.counting = counting;
+		}
+		
+		@Override
+		protected void compute()
+		{
+			if(lastBand - firstBand > 1)
+			{
+				int middle = (firstBand + lastBand) >>> 1;
+				invokeAll(new BandTask(generation, cells, columns, bandStarts, bandMines, bandRandoms, firstBand, middle, counting),
+						new BandTask(generation, cells, columns, bandStarts, bandMines, bandRandoms, middle, lastBand, counting));
+			}
+			else
+			{
+				//The bands run on the pool's threads, so they watch the generation rather than their own thread
+				generation.checkCancelled();
+				if(counting)
+				{
+					countSurroundingMines(cells, bandStarts[bandStarts.length - 1], columns, bandStarts[firstBand], bandStarts[firstBand + 1], generation);
+				}
+				else
+				{
+					placeMines(cells, bandStarts[firstBand] * columns, bandStarts[firstBand + 1] * columns, bandMines[firstBand], bandRandoms[firstBand], generation);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,16 @@
+/**
+ * BoardListener - Receives changes to the tiles of a MinesweeperBoard
+ * 
+ * The board itself knows nothing about how it is displayed, so anything that draws it
+ * (or records what happens to it) subscribes through this interface.
+ * 
+ * @author Dylan Weber
+ * @version 6/3/2018
+ */
+package game;
+
+public interface BoardListener
+{
+	//Called after the state of the tile at (row, column) changes. Resetting the board does not call it for every tile.
+	void tileChanged(int row, int column);
+}
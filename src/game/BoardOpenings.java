@@ -0,0 +1,247 @@
+/**
+ * BoardOpenings - The openings of a board, found once so that revealing an empty tile is a lookup
+ * 
+ * An opening is a connected region of tiles with no surrounding mines together with the numbers around
+ * its edge, which is exactly what revealing any of its empty tiles opens. The empty tiles are joined into
+ * regions with union-find in one pass over the board, then each region's tiles are listed one after the
+ * other in a single array. A number on the edge of more than one opening is listed in each of them.
+ * 
+ * @author Dylan Weber
+ * @version 6/3/2018
+ */
+package game;
+
+final class BoardOpenings
+{
+	//Boards with more tiles than this are flood filled instead, since the lists take about ten bytes per tile
+	static final int MAX_TILES = 1 << 22;
+	
+	//The opening of each empty tile, or -1 for mines and numbers
+	private final int[] openingOf;
+	//The tiles of opening k are tiles[openingStarts[k]] up to tiles[openingStarts[k + 1]], in board order
+	private final int[] openingStarts;
+	private final int[] tiles;
+	private final int threeBV;
+	
+	BoardOpenings(byte[] cells, int rows, int columns)
+	{
+		openingOf = new int[cells.length];
+		joinEmptyTiles(cells, columns, openingOf);
+		
+		//Numbers each region in board order. A tile's parent is relabelled before it, and already holds the
+		//number of its region by then, so the parents are replaced with region numbers in the same array.
+		int openings = 0;
+		for(int index = 0; index < cells.length; index++)
+		{
+			int parent = openingOf[index];
+			if(parent == index)
+			{
+				openingOf[index] = openings++;
+			}
+			else if(parent >= 0)
+			{
+				openingOf[index] = openingOf[parent];
+			}
+		}
+		
+		//Counts the tiles of each opening, then lists them
+		openingStarts = new int[openings + 1];
+		int[] around = new int[8];
+		int isolatedNumbers = 0;
+		for(int index = 0; index < cells.length; index++)
+		{
+			int size = openingsAround(cells, rows, columns, index, around);
+			for(int k = 0; k < size; k++)
+			{
+				openingStarts[around[k] + 1]++;
+			}
+			if(size == 0 && !Cells.isMine(cells[index]))
+			{
+				isolatedNumbers++;
+			}
+		}
+		for(int opening = 0; opening < openings; opening++)
+		{
+			openingStarts[opening + 1] += openingStarts[opening];
+		}
+		
+		tiles = new int[openingStarts[openings]];
+		int[] nextPosition = openingStarts.clone();
+		for(int index = 0; index < cells.length; index++)
+		{
+			int size = openingsAround(cells, rows, columns, index, around);
+			for(int k = 0; k < size; k++)
+			{
+				tiles[nextPosition[around[k]]++] = index;
+			}
+		}
+		
+		//Every opening takes one click, and so does every number that no opening reveals
+		threeBV = openings + isolatedNumbers;
+	}
+	
+	/**
+	 * Counts the 3BV of a board without listing its openings, for boards too large to keep them. Only one
+	 * int per tile is needed, for the regions of empty tiles.
+	 */
+	static int countThreeBV(byte[] cells, int rows, int columns)
+	{
+		int[] parents = new int[cells.length];
+		joinEmptyTiles(cells, columns, parents);
+		
+		//Each region's root takes one click, and so does each number with no empty tile around it
+		int threeBV = 0;
+		for(int index = 0; index < cells.length; index++)
+		{
+			if(parents[index] == index || (parents[index] < 0 && !Cells.isMine(cells[index]) && !nextToEmptyTile(cells, rows, columns, index)))
+			{
+				threeBV++;
+			}
+		}
+		return threeBV;
+	}
+	
+	//Points each empty tile at its parent in its region and each other tile at -1
+	private static void joinEmptyTiles(byte[] cells, int columns, int[] parents)
+	{
+		//Joins each empty tile to the empty tiles before it among its neighbours. A root is always the
+		//lowest tile of its region, so every tile's parent comes before it.
+		for(int index = 0; index < cells.length; index++)
+		{
+			if(!isEmpty(cells[index]))
+			{
+				parents[index] = -1;
+				continue;
+			}
+			parents[index] = index;
+			
+			int row = index / columns, column = index % columns;
+			if(column > 0 && isEmpty(cells[index - 1]))
+			{
+				union(parents, index, index - 1);
+			}
+			if(row > 0)
+			{
+				for(int j = Math.max(column - 1, 0); j <= Math.min(column + 1, columns - 1); j++)
+				{
+					if(isEmpty(cells[index - columns - column + j]))
+					{
+						union(parents, index, index - columns - column + j);
+					}
+				}
+			}
+		}
+	}
+	
+	private static boolean nextToEmptyTile(byte[] cells, int rows, int columns, int index)
+	{
+		int row = index / columns, column = index % columns;
+		for(int i = Math.max(row - 1, 0); i <= Math.min(row + 1, rows - 1); i++)
+		{
+			for(int j = Math.max(column - 1, 0); j <= Math.min(column + 1, columns - 1); j++)
+			{
+				if(isEmpty(cells[i * columns + j]))
+				{
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+	
+	private static boolean isEmpty(byte cell)
+	{
+		return !Cells.isMine(cell) && Cells.numberOfSurroundingMines(cell) == 0;
+	}
+	
+	//Finds the root of a tile's region, pointing every other tile on the way at its grandparent
+	private static int find(int[] parents, int index)
+	{
+		while(parents[index] != index)
+		{
+			parents[index] = parents[parents[index]];
+			index = parents[index];
+		}
+		return index;
+	}
+	
+	//Joins the regions of two tiles under the lower of their roots
+	private static void union(int[] parents, int first, int second)
+	{
+		int firstRoot = find(parents, first), secondRoot = find(parents, second);
+		if(firstRoot < secondRoot)
+		{
+			parents[secondRoot] = firstRoot;
+		}
+		else if(secondRoot < firstRoot)
+		{
+			parents[firstRoot] = secondRoot;
+		}
+	}
+	
+	/**
+	 * Puts the openings a tile belongs to into around and returns how many there are. An empty tile belongs
+	 * to its own, a number to those of the empty tiles around it, and a mine to none.
+	 */
+	private int openingsAround(byte[] cells, int rows, int columns, int index, int[] around)
+	{
+		if(openingOf[index] >= 0)
+		{
+			around[0] = openingOf[index];
+			return 1;
+		}
+		if(Cells.isMine(cells[index]))
+		{
+			return 0;
+		}
+		
+		int size = 0;
+		int row = index / columns, column = index % columns;
+		for(int i = Math.max(row - 1, 0); i <= Math.min(row + 1, rows - 1); i++)
+		{
+			for(int j = Math.max(column - 1, 0); j <= Math.min(column + 1, columns - 1); j++)
+			{
+				int opening = openingOf[i * columns + j];
+				boolean listed = opening < 0;
+				for(int k = 0; k < size && !listed; k++)
+				{
+					listed = around[k] == opening;
+				}
+				if(!listed)
+				{
+					around[size++] = opening;
+				}
+			}
+		}
+		return size;
+	}
+	
+	//Returns the opening an empty tile belongs to, or -1 if the tile isn't empty
+	int openingOf(int index)
+	{
+		return openingOf[index];
+	}
+	
+	//Returns the position in the tile list of the first tile of an opening
+	int firstTile(int opening)
+	{
+		return openingStarts[opening];
+	}
+	
+	//Returns the position in the tile list just after the last tile of an opening
+	int endOfTiles(int opening)
+	{
+		return openingStarts[opening + 1];
+	}
+	
+	int tileAt(int position)
+	{
+		return tiles[position];
+	}
+	
+	//Returns the 3BV of the board: the fewest clicks that clear it without flagging, which is one per opening plus one per number outside them
+	int getThreeBV()
+	{
+		return threeBV;
+	}
+}
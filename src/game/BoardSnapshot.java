@@ -0,0 +1,32 @@
+/**
+ * BoardSnapshot - A copy of the state of a MinesweeperBoard at one moment
+ * 
+ * @author Dylan Weber
+ * @version 6/3/2018
+ */
+package game;
+
+class BoardSnapshot
+{
+	final byte[] cells;
+	final int rows;
+	final int columns;
+	final int numberOfMines;
+	final int revealedTiles;
+	final boolean gameLost;
+	final long seed;
+	//The moves that could be undone and redone, or null if the board didn't keep them
+	final MoveHistory history;
+	
+	BoardSnapshot(byte[] cells, int rows, int columns, int numberOfMines, int revealedTiles, boolean gameLost, long seed, MoveHistory history)
+	{
+		this.cells = cells;
+		this.rows = rows;
+		this.columns = columns;
+		this.numberOfMines = numberOfMines;
+		this.revealedTiles = revealedTiles;
+		this.gameLost = gameLost;
+		this.seed = seed;
+		this.history = history;
+	}
+}
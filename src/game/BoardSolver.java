@@ -0,0 +1,359 @@
+/**
+ * BoardSolver - Plays a board the way a careful player would, to check that it never needs a guess
+ * 
+ * The solver only knows what a player would: the numbers it has revealed and the total number of mines.
+ * It reveals a tile or marks a mine only when that follows for certain from
+ *  - a single number whose mines are all marked, or whose hidden neighbours must all be mines,
+ *  - two nearby numbers, where one's hidden neighbours minus the other's must hold exactly the
+ *    difference between their remaining mines, or
+ *  - the number of mines left, once every mine has been found.
+ * Numbers are only looked at again when a tile around them changes, and pairs are only tried once the
+ * single numbers have nothing left to give, so most of the work is the cheap rule. A pair that told
+ * nothing can only tell something once a tile around one of its numbers changes, so the pair rule only
+ * starts from the numbers that changed since it last ran, which keeps a whole solve close to linear in
+ * the size of the board.
+ * 
+ * @author Dylan Weber
+ * @version 6/3/2018
+ */
+package game;
+
+final class BoardSolver
+{
+	//What the solver knows about each tile
+	private static final byte UNKNOWN = 0;
+	private static final byte SAFE = 1;
+	private static final byte MINE = 2;
+	
+	private final byte[] cells;
+	private final int rows, columns;
+	private final int numberOfMines;
+	private final byte[] known;
+	//Revealed numbers that need to be looked at again, used as a stack
+	private final int[] pending;
+	private final boolean[] isPending;
+	private int numberOfPending;
+	//Revealed numbers whose surroundings changed since the pair rule last ran, also used as a stack
+	private final int[] pairPending;
+	private final boolean[] isPairPending;
+	private int numberOfPairPending;
+	private int revealedTiles, markedMines;
+	//How many tiles have been looked at, and how many may be before the solver gives up
+	private long work;
+	private final long maxWork;
+	//Scratch space for the hidden neighbours of the two numbers in a pair, and for the tiles only one of them touches
+	private final int[] hiddenA = new int[8], hiddenB = new int[8];
+	private final int[] onlyA = new int[8], onlyB = new int[8];
+	
+	//Only the mine and count bits of cells are read
+	BoardSolver(byte[] cells, int rows, int columns, int numberOfMines, long maxWork)
+	{
+		this.cells = cells;
+		this.rows = rows;
+		this.columns = columns;
+		this.numberOfMines = numberOfMines;
+		this.maxWork = maxWork;
+		this.known = new byte[cells.length];
+		this.pending = new int[cells.length];
+		this.isPending = new boolean[cells.length];
+		this.pairPending = new int[cells.length];
+		this.isPairPending = new boolean[cells.length];
+	}
+	
+	/**
+	 * Returns whether every free tile can be revealed without guessing, starting by revealing the tile at start.
+	 * A board that would take more than maxWork tiles looked at to solve counts as needing a guess.
+	 */
+	boolean solve(int start)
+	{
+		if(Cells.isMine(cells[start]))
+		{
+			return false;
+		}
+		int freeTiles = cells.length - numberOfMines;
+		reveal(start);
+		
+		while(revealedTiles < freeTiles)
+		{
+			while(numberOfPending > 0 && revealedTiles < freeTiles)
+			{
+				int index = pending[--numberOfPending];
+				isPending[index] = false;
+				applySingleRule(index);
+			}
+			
+			if(work > maxWork || (revealedTiles < freeTiles && !applyPairRule() && !applyMineCountRule()))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	//Returns how many tiles the solver has looked at so far
+	long getWork()
+	{
+		return work;
+	}
+	
+	//Reveals a tile, and the opening around it if it has no surrounding mines
+	private void reveal(int start)
+	{
+		if(known[start] != UNKNOWN)
+		{
+			return;
+		}
+		known[start] = SAFE;
+		revealedTiles++;
+		
+		//The opening is kept on the end of the pending stack, so it needs no queue of its own
+		int stackStart = numberOfPending;
+		push(start);
+		for(int position = stackStart; position < numberOfPending; position++)
+		{
+			int index = pending[position];
+			if(Cells.numberOfSurroundingMines(cells[index]) != 0)
+			{
+				continue;
+			}
+			
+			work += 9;
+			int row = index / columns, column = index % columns;
+			for(int i = Math.max(row - 1, 0); i <= Math.min(row + 1, rows - 1); i++)
+			{
+				for(int j = Math.max(column - 1, 0); j <= Math.min(column + 1, columns - 1); j++)
+				{
+					int surroundingIndex = i * columns + j;
+					if(known[surroundingIndex] == UNKNOWN)
+					{
+						known[surroundingIndex] = SAFE;
+						revealedTiles++;
+						push(surroundingIndex);
+					}
+				}
+			}
+		}
+		
+		//The numbers around the tiles that were just revealed may now tell more
+		int openingEnd = numberOfPending;
+		for(int position = stackStart; position < openingEnd; position++)
+		{
+			pushRevealedNeighbours(pending[position]);
+		}
+	}
+	
+	private void markMine(int index)
+	{
+		if(known[index] == UNKNOWN)
+		{
+			known[index] = MINE;
+			markedMines++;
+			pushRevealedNeighbours(index);
+		}
+	}
+	
+	//Queues a revealed tile for the single rule, and for the pair rule if it is a number
+	private void push(int index)
+	{
+		if(!isPending[index])
+		{
+			isPending[index] = true;
+			pending[numberOfPending++] = index;
+		}
+		if(Cells.numberOfSurroundingMines(cells[index]) != 0)
+		{
+			pushPair(index);
+		}
+	}
+	
+	private void pushPair(int index)
+	{
+		if(!isPairPending[index])
+		{
+			isPairPending[index] = true;
+			pairPending[numberOfPairPending++] = index;
+		}
+	}
+	
+	private void pushRevealedNeighbours(int index)
+	{
+		work += 9;
+		int row = index / columns, column = index % columns;
+		for(int i = Math.max(row - 1, 0); i <= Math.min(row + 1, rows - 1); i++)
+		{
+			for(int j = Math.max(column - 1, 0); j <= Math.min(column + 1, columns - 1); j++)
+			{
+				int surroundingIndex = i * columns + j;
+				if(known[surroundingIndex] == SAFE && Cells.numberOfSurroundingMines(cells[surroundingIndex]) != 0)
+				{
+					push(surroundingIndex);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Puts the hidden neighbours of a revealed number into hidden. Returns how many of its mines aren't marked
+	 * yet shifted left by four bits, plus the number of hidden neighbours (at most eight) in the low bits.
+	 */
+	private int collectHidden(int index, int[] hidden)
+	{
+		work += 9;
+		int row = index / columns, column = index % columns;
+		int mines = Cells.numberOfSurroundingMines(cells[index]);
+		int size = 0;
+		for(int i = Math.max(row - 1, 0); i <= Math.min(row + 1, rows - 1); i++)
+		{
+			for(int j = Math.max(column - 1, 0); j <= Math.min(column + 1, columns - 1); j++)
+			{
+				int surroundingIndex = i * columns + j;
+				if(known[surroundingIndex] == UNKNOWN)
+				{
+					hidden[size++] = surroundingIndex;
+				}
+				else if(known[surroundingIndex] == MINE)
+				{
+					mines--;
+				}
+			}
+		}
+		return mines << 4 | size;
+	}
+	
+	private void applySingleRule(int index)
+	{
+		int hidden = collectHidden(index, hiddenA);
+		int size = hidden & 0xF, minesLeft = hidden >> 4;
+		if(size == 0)
+		{
+			return;
+		}
+		if(minesLeft == 0)
+		{
+			for(int k = 0; k < size; k++)
+			{
+				reveal(hiddenA[k]);
+			}
+		}
+		else if(minesLeft == size)
+		{
+			for(int k = 0; k < size; k++)
+			{
+				markMine(hiddenA[k]);
+			}
+		}
+	}
+	
+	/**
+	 * Tries the pairs of revealed numbers up to two tiles apart that include a number whose surroundings
+	 * changed since the last time, and returns whether anything was learned
+	 */
+	private boolean applyPairRule()
+	{
+		while(numberOfPairPending > 0)
+		{
+			int a = pairPending[--numberOfPairPending];
+			isPairPending[a] = false;
+			if(applyPairRule(a))
+			{
+				//The pairs of a that weren't tried yet may still tell something
+				pushPair(a);
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	//Tries every pair of a revealed number and another one up to two tiles away, both ways round
+	private boolean applyPairRule(int a)
+	{
+		int hidden = collectHidden(a, hiddenA);
+		int sizeA = hidden & 0xF, minesA = hidden >> 4;
+		if(sizeA == 0)
+		{
+			return false;
+		}
+		
+		int row = a / columns, column = a % columns;
+		for(int i = Math.max(row - 2, 0); i <= Math.min(row + 2, rows - 1); i++)
+		{
+			for(int j = Math.max(column - 2, 0); j <= Math.min(column + 2, columns - 1); j++)
+			{
+				int b = i * columns + j;
+				if(b == a || known[b] != SAFE || Cells.numberOfSurroundingMines(cells[b]) == 0)
+				{
+					continue;
+				}
+				hidden = collectHidden(b, hiddenB);
+				int sizeB = hidden & 0xF, minesB = hidden >> 4;
+				if(sizeB == 0)
+				{
+					continue;
+				}
+				
+				if(applyPair(hiddenA, sizeA, minesA, hiddenB, sizeB, minesB) || applyPair(hiddenB, sizeB, minesB, hiddenA, sizeA, minesA))
+				{
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * B can only have minesB - minesA more mines than A if every tile only B touches is a mine and every
+	 * tile only A touches is safe. This includes B's tiles all being A's with as many mines. Returns
+	 * whether anything was learned.
+	 */
+	private boolean applyPair(int[] hiddenA, int sizeA, int minesA, int[] hiddenB, int sizeB, int minesB)
+	{
+		int onlyASize = difference(hiddenA, sizeA, hiddenB, sizeB, onlyA);
+		int onlyBSize = difference(hiddenB, sizeB, hiddenA, sizeA, onlyB);
+		if(onlyASize + onlyBSize == 0 || minesB - minesA != onlyBSize)
+		{
+			return false;
+		}
+		for(int k = 0; k < onlyBSize; k++)
+		{
+			markMine(onlyB[k]);
+		}
+		for(int k = 0; k < onlyASize; k++)
+		{
+			reveal(onlyA[k]);
+		}
+		return true;
+	}
+	
+	//Puts the tiles in first that aren't in second into result and returns how many there are
+	private static int difference(int[] first, int firstSize, int[] second, int secondSize, int[] result)
+	{
+		int size = 0;
+		for(int k = 0; k < firstSize; k++)
+		{
+			boolean shared = false;
+			for(int l = 0; l < secondSize && !shared; l++)
+			{
+				shared = first[k] == second[l];
+			}
+			if(!shared)
+			{
+				result[size++] = first[k];
+			}
+		}
+		return size;
+	}
+	
+	//Reveals every hidden tile once every mine is marked and returns whether there were any
+	private boolean applyMineCountRule()
+	{
+		if(markedMines != numberOfMines)
+		{
+			return false;
+		}
+		for(int index = 0; index < cells.length; index++)
+		{
+			reveal(index);
+		}
+		return true;
+	}
+}
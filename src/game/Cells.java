@@ -0,0 +1,64 @@
+/**
+ * Cells - Packs the state of a single tile into one byte
+ * 
+ * @author Dylan Weber
+ * @version 6/3/2018
+ */
+package game;
+
+import game.Tile.FlagState;
+
+final class Cells
+{
+	//Bits 0-3 hold the number of surrounding mines (0-8)
+	static final int COUNT_MASK = 0x0F;
+	static final int MINE = 0x10;
+	static final int REVEALED = 0x20;
+	//Bits 6-7 hold the ordinal of the tile's FlagState
+	static final int FLAG_SHIFT = 6;
+	static final int FLAG_MASK = 0xC0;
+	
+	private static final FlagState[] FLAG_STATES = FlagState.values();
+	
+	private Cells() { }
+	
+	static boolean isMine(byte cell)
+	{
+		return (cell & MINE) != 0;
+	}
+	
+	static boolean isRevealed(byte cell)
+	{
+		return (cell & REVEALED) != 0;
+	}
+	
+	static int numberOfSurroundingMines(byte cell)
+	{
+		return cell & COUNT_MASK;
+	}
+	
+	static FlagState flagState(byte cell)
+	{
+		return FLAG_STATES[(cell & FLAG_MASK) >>> FLAG_SHIFT];
+	}
+	
+	static byte withMine(byte cell, boolean isMine)
+	{
+		return (byte) (isMine ? cell | MINE : cell & ~MINE);
+	}
+	
+	static byte withRevealed(byte cell, boolean isRevealed)
+	{
+		return (byte) (isRevealed ? cell | REVEALED : cell & ~REVEALED);
+	}
+	
+	static byte withNumberOfSurroundingMines(byte cell, int numberOfSurroundingMines)
+	{
+		return (byte) ((cell & ~COUNT_MASK) | numberOfSurroundingMines);
+	}
+	
+	static byte withFlagState(byte cell, FlagState flagState)
+	{
+		return (byte) ((cell & ~FLAG_MASK) | (flagState.ordinal() << FLAG_SHIFT));
+	}
+}
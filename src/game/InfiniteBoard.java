@@ -0,0 +1,454 @@
+/**
+ * InfiniteBoard - A board with no edges whose tiles are generated the first time they are looked at
+ * 
+ * The world is split into square chunks. The mines in a chunk only depend on the world seed and the
+ * position of the chunk, so a chunk can be generated whenever it is needed and thrown away when it
+ * hasn't been used for a while. All that has to be kept for a chunk that was thrown away is a small
+ * record of the tiles the player revealed or flagged in it, which is applied again when it comes back.
+ * Memory therefore grows with the area the player has explored rather than the size of the world.
+ * The board is engine-only for now: neither the window nor the server plays on it.
+ * 
+ * @author Dylan Weber
+ * @version 6/3/2018
+ */
+package game;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import game.Tile.FlagState;
+
+public class InfiniteBoard
+{
+	//Chunks are CHUNK_SIZE x CHUNK_SIZE tiles, which must be a power of two
+	public static final int CHUNK_SHIFT = 6;
+	public static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+	public static final int DEFAULT_MAXIMUM_LOADED_CHUNKS = 1024;
+	//Below this density the empty areas join up into one endless opening, so the density is kept above it
+	public static final double MINIMUM_DENSITY = 0.12;
+	
+	private static final int CHUNK_TILES = CHUNK_SIZE * CHUNK_SIZE;
+	private static final int LOCAL_MASK = CHUNK_SIZE - 1;
+	//Only the revealed and flag bits of a tile can be changed by the player, so only they are saved
+	private static final int PLAYER_BITS = Cells.REVEALED | Cells.FLAG_MASK;
+	
+	private static class Chunk
+	{
+		byte[] cells = new byte[CHUNK_TILES];
+		//Set when the player changes a tile, so that the chunk's changes are saved when it is thrown away
+		boolean modified;
+	}
+	
+	//A queue of positions packed into longs, kept in a ring so that queueing a tile allocates nothing
+	private static class PositionQueue
+	{
+		private long[] positions = new long[64];
+		private int head, size;
+		
+		void add(int row, int column)
+		{
+			if(size == positions.length)
+			{
+				//Unwraps the ring into a bigger array, oldest position first
+				long[] larger = new long[size * 2];
+				System.arraycopy(positions, head, larger, 0, size - head);
+				System.arraycopy(positions, 0, larger, size - head, head);
+				positions = larger;
+				head = 0;
+			}
+			positions[(head + size) & (positions.length - 1)] = (long) row << 32 | (column & 0xFFFFFFFFL);
+			size++;
+		}
+		
+		//Removes the oldest position. Its row is in the high half and its column in the low half.
+		long poll()
+		{
+			long position = positions[head];
+			head = (head + 1) & (positions.length - 1);
+			size--;
+			return position;
+		}
+		
+		boolean isEmpty()
+		{
+			return size == 0;
+		}
+	}
+	
+	private long seed;
+	private double density;
+	private int maximumLoadedChunks;
+	private BoardListener listener;
+	//The most recently used chunks come last, so the first entry is the one to throw away
+	private LinkedHashMap<Long, Chunk> loadedChunks;
+	private Map<Long, byte[]> savedChanges;
+	private boolean firstRevealDone;
+	//The first reveal and the tiles around it are never mines
+	private int safeRow, safeColumn;
+	private long revealedTiles;
+	private boolean gameLost;
+	
+	public InfiniteBoard(long seed, double density)
+	{
+		this(null, seed, density, DEFAULT_MAXIMUM_LOADED_CHUNKS);
+	}
+	
+	public InfiniteBoard(BoardListener listener, long seed, double density, int maximumLoadedChunks)
+	{
+		this.listener = listener;
+		this.seed = seed;
+		//Caps the density between the minimum and a board full of mines
+		this.density = Math.max(MINIMUM_DENSITY, Math.min(density, 1.0));
+		this.maximumLoadedChunks = Math.max(maximumLoadedChunks, 1);
+		this.loadedChunks = new LinkedHashMap<Long, Chunk>(16, 0.75f, true)
+		{
+			private static final long serialVersionUID = 1L;
+			
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, Chunk> eldest)
+			{
+				if(size() > InfiniteBoard.this.maximumLoadedChunks)
+				{
+					saveChanges(eldest.getKey(), eldest.getValue());
+					return true;
+				}
+				return false;
+			}
+		};
+		this.savedChanges = new HashMap<>();
+	}
+	
+	/**
+	 * Reveals a tile and, if it has no surrounding mines, the empty area around it
+	 * @return - The number of tiles that were opened
+	 */
+	public long revealTile(int row, int column)
+	{
+		if(!firstRevealDone)
+		{
+			//Tiles that were generated before the safe area was known have to be generated again.
+			//Flags placed before the first reveal are kept, since they don't depend on the mines.
+			for(Map.Entry<Long, Chunk> entry : loadedChunks.entrySet())
+			{
+				saveChanges(entry.getKey(), entry.getValue());
+			}
+			loadedChunks.clear();
+			firstRevealDone = true;
+			safeRow = row;
+			safeColumn = column;
+		}
+		
+		if(isRevealed(row, column))
+		{
+			return 0;
+		}
+		
+		long openedTiles = 0;
+		//Tiles are revealed as they are queued, so the queue only holds the frontier of the opening
+		PositionQueue frontier = new PositionQueue();
+		openTile(row, column);
+		openedTiles++;
+		frontier.add(row, column);
+		
+		while(!frontier.isEmpty())
+		{
+			long position = frontier.poll();
+			int currentRow = (int) (position >> 32), currentColumn = (int) position;
+			byte cell = getCell(currentRow, currentColumn);
+			
+			if(Cells.isMine(cell))
+			{
+				gameLost = true;
+			}
+			else if(Cells.numberOfSurroundingMines(cell) == 0)
+			{
+				for(int i = currentRow - 1; i <= currentRow + 1; i++)
+				{
+					for(int j = currentColumn - 1; j <= currentColumn + 1; j++)
+					{
+						if(!isRevealed(i, j))
+						{
+							openTile(i, j);
+							openedTiles++;
+							frontier.add(i, j);
+						}
+					}
+				}
+			}
+		}
+		
+		return openedTiles;
+	}
+	
+	private void openTile(int row, int column)
+	{
+		byte cell = getCell(row, column);
+		setCell(row, column, Cells.withFlagState(Cells.withRevealed(cell, true), FlagState.NONE));
+		if(!Cells.isMine(cell))
+		{
+			revealedTiles++;
+		}
+	}
+	
+	public boolean isRevealed(int row, int column)
+	{
+		return Cells.isRevealed(getCell(row, column));
+	}
+	
+	public boolean isMine(int row, int column)
+	{
+		return Cells.isMine(getCell(row, column));
+	}
+	
+	public int getNumberOfSurroundingMines(int row, int column)
+	{
+		return Cells.numberOfSurroundingMines(getCell(row, column));
+	}
+	
+	public FlagState getFlagState(int row, int column)
+	{
+		return Cells.flagState(getCell(row, column));
+	}
+	
+	public void setFlagState(int row, int column, FlagState flagState)
+	{
+		setCell(row, column, Cells.withFlagState(getCell(row, column), flagState));
+	}
+	
+	public long getRevealedTiles()
+	{
+		return revealedTiles;
+	}
+	
+	public boolean gameLost()
+	{
+		return gameLost;
+	}
+	
+	public double getDensity()
+	{
+		return density;
+	}
+	
+	public long getSeed()
+	{
+		return seed;
+	}
+	
+	public int numberOfLoadedChunks()
+	{
+		return loadedChunks.size();
+	}
+	
+	public int numberOfSavedChunks()
+	{
+		return savedChanges.size();
+	}
+	
+	private byte getCell(int row, int column)
+	{
+		return getChunk(row >> CHUNK_SHIFT, column >> CHUNK_SHIFT).cells[localIndex(row, column)];
+	}
+	
+	private void setCell(int row, int column, byte cell)
+	{
+		Chunk chunk = getChunk(row >> CHUNK_SHIFT, column >> CHUNK_SHIFT);
+		chunk.cells[localIndex(row, column)] = cell;
+		chunk.modified = true;
+		
+		if(listener != null)
+		{
+			listener.tileChanged(row, column);
+		}
+	}
+	
+	private static int localIndex(int row, int column)
+	{
+		return (row & LOCAL_MASK) << CHUNK_SHIFT | (column & LOCAL_MASK);
+	}
+	
+	private static long chunkKey(int chunkRow, int chunkColumn)
+	{
+		return (long) chunkRow << 32 | (chunkColumn & 0xFFFFFFFFL);
+	}
+	
+	//Returns a loaded chunk, generating it and applying the player's saved changes if it isn't loaded
+	private Chunk getChunk(int chunkRow, int chunkColumn)
+	{
+		long key = chunkKey(chunkRow, chunkColumn);
+		Chunk chunk = loadedChunks.get(key);
+		
+		if(chunk == null)
+		{
+			chunk = generateChunk(chunkRow, chunkColumn);
+			byte[] changes = savedChanges.get(key);
+			if(changes != null)
+			{
+				applyChanges(chunk, changes);
+			}
+			loadedChunks.put(key, chunk);
+		}
+		
+		return chunk;
+	}
+	
+	//Sets up the mines of a chunk and the number of mines around each of its tiles, including mines in neighbouring chunks
+	private Chunk generateChunk(int chunkRow, int chunkColumn)
+	{
+		//The mines of the chunk and a one tile border around it
+		boolean[][] mines = new boolean[CHUNK_SIZE + 2][CHUNK_SIZE + 2];
+		for(int i = -1; i <= 1; i++)
+		{
+			for(int j = -1; j <= 1; j++)
+			{
+				long[] layout = generateMines(chunkRow + i, chunkColumn + j);
+				for(int row = 0; row < CHUNK_SIZE; row++)
+				{
+					int haloRow = row + i * CHUNK_SIZE + 1;
+					if(haloRow < 0 || haloRow > CHUNK_SIZE + 1)
+					{
+						continue;
+					}
+					for(int column = 0; column < CHUNK_SIZE; column++)
+					{
+						int haloColumn = column + j * CHUNK_SIZE + 1;
+						if(haloColumn >= 0 && haloColumn <= CHUNK_SIZE + 1)
+						{
+							mines[haloRow][haloColumn] = isMine(layout, row << CHUNK_SHIFT | column);
+						}
+					}
+				}
+			}
+		}
+		
+		Chunk chunk = new Chunk();
+		for(int row = 1; row <= CHUNK_SIZE; row++)
+		{
+			for(int column = 1; column <= CHUNK_SIZE; column++)
+			{
+				int count = 0;
+				for(int i = row - 1; i <= row + 1; i++)
+				{
+					for(int j = column - 1; j <= column + 1; j++)
+					{
+						if((i != row || j != column) && mines[i][j])
+						{
+							count++;
+						}
+					}
+				}
+				
+				byte cell = Cells.withNumberOfSurroundingMines(Cells.withMine((byte) 0, mines[row][column]), count);
+				chunk.cells[(row - 1) << CHUNK_SHIFT | (column - 1)] = cell;
+			}
+		}
+		
+		return chunk;
+	}
+	
+	//Returns one bit per tile of the chunk, set for mines. It only depends on the seed, the chunk and the first reveal.
+	private long[] generateMines(int chunkRow, int chunkColumn)
+	{
+		long[] layout = new long[CHUNK_TILES / 64];
+		SplittableRandom mineChooser = new SplittableRandom(mix(seed + mix(chunkKey(chunkRow, chunkColumn))));
+		
+		for(int index = 0; index < CHUNK_TILES; index++)
+		{
+			if(mineChooser.nextDouble() < density)
+			{
+				int row = chunkRow * CHUNK_SIZE + (index >> CHUNK_SHIFT);
+				int column = chunkColumn * CHUNK_SIZE + (index & LOCAL_MASK);
+				boolean safe = firstRevealDone && Math.abs(row - safeRow) <= 1 && Math.abs(column - safeColumn) <= 1;
+				if(!safe)
+				{
+					layout[index >>> 6] |= 1L << index;
+				}
+			}
+		}
+		
+		return layout;
+	}
+	
+	private static boolean isMine(long[] layout, int index)
+	{
+		return (layout[index >>> 6] & 1L << index) != 0;
+	}
+	
+	//Scrambles the bits of a number so that neighbouring chunks get unrelated random streams
+	private static long mix(long value)
+	{
+		value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+		value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+		return value ^ (value >>> 31);
+	}
+	
+	/**
+	 * Records the tiles of a chunk that the player changed before it is thrown away. Only tiles that were
+	 * revealed or flagged are saved, as three bytes each (position and state). If that would be bigger than
+	 * saving every tile, one byte per tile is saved instead.
+	 */
+	private void saveChanges(long key, Chunk chunk)
+	{
+		if(!chunk.modified)
+		{
+			return;
+		}
+		
+		int changedTiles = 0;
+		for(byte cell : chunk.cells)
+		{
+			if((cell & PLAYER_BITS) != 0)
+			{
+				changedTiles++;
+			}
+		}
+		
+		byte[] changes;
+		if(changedTiles * 3 >= CHUNK_TILES)
+		{
+			changes = new byte[CHUNK_TILES];
+			for(int index = 0; index < CHUNK_TILES; index++)
+			{
+				changes[index] = (byte) (chunk.cells[index] & PLAYER_BITS);
+			}
+		}
+		else
+		{
+			changes = new byte[changedTiles * 3];
+			int position = 0;
+			for(int index = 0; index < CHUNK_TILES; index++)
+			{
+				int playerBits = chunk.cells[index] & PLAYER_BITS;
+				if(playerBits != 0)
+				{
+					changes[position++] = (byte) (index >>> 8);
+					changes[position++] = (byte) index;
+					changes[position++] = (byte) playerBits;
+				}
+			}
+		}
+		
+		savedChanges.put(key, changes);
+	}
+	
+	private static void applyChanges(Chunk chunk, byte[] changes)
+	{
+		if(changes.length == CHUNK_TILES)
+		{
+			for(int index = 0; index < CHUNK_TILES; index++)
+			{
+				chunk.cells[index] |= changes[index];
+			}
+		}
+		else
+		{
+			for(int position = 0; position < changes.length; position += 3)
+			{
+				int index = (changes[position] & 0xFF) << 8 | (changes[position + 1] & 0xFF);
+				chunk.cells[index] |= changes[position + 2];
+			}
+		}
+	}
+}
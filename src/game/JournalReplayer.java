@@ -0,0 +1,323 @@
+/**
+ * JournalReplayer - Rebuilds the board recorded in a MoveJournal and moves through its moves
+ * 
+ * The journal is read once into arrays and replayed from the start. Along the way every reset and
+ * loaded board is remembered as a starting point, and a snapshot of the board is kept every keyframeInterval moves.
+ * Seeking to a move finds the closest starting point before it with a binary search and replays at
+ * most keyframeInterval moves from there.
+ * 
+ * @author Dylan Weber
+ * @version 6/3/2018
+ */
+package game;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import game.MinesweeperBoard.FirstRevealMode;
+import game.Tile.FlagState;
+
+public class JournalReplayer
+{
+	public static final int DEFAULT_KEYFRAME_INTERVAL = 1 << 16;
+	
+	private static final FirstRevealMode[] FIRST_REVEAL_MODES = FirstRevealMode.values();
+	private static final FlagState[] FLAG_STATES = FlagState.values();
+	
+	private MinesweeperBoard board;
+	private int keyframeInterval;
+	
+	//One entry per move. Resets and loads keep their mines in values and the number of the reset in extras.
+	private byte[] types;
+	private int[] rows, columns, values, extras;
+	private long[] times;
+	private int numberOfMoves;
+	private long[] resetSeeds;
+	private int[] resetSettings;
+	//The mines of each loaded board, read straight from the journal, or null for resets
+	private LongBuffer[] resetBitmaps;
+	private int numberOfResets;
+	
+	//The positions that seeking can start from, in order. A null snapshot means the move before it is a reset.
+	private int[] keyframeMoves;
+	private BoardSnapshot[] keyframeSnapshots;
+	private int numberOfKeyframes;
+	
+	//The number of moves that have been applied to the board
+	private int position;
+	
+	public JournalReplayer(Path path) throws IOException
+	{
+		this(path, DEFAULT_KEYFRAME_INTERVAL);
+	}
+	
+	public JournalReplayer(Path path, int keyframeInterval) throws IOException
+	{
+		this.keyframeInterval = Math.max(keyframeInterval, 1);
+		this.board = new MinesweeperBoard(1, 1, 0);
+		board.setUndoHistory(true);
+		
+		try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+		{
+			ByteBuffer journal = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			readMoves(journal);
+		}
+		
+		keyframeMoves = new int[16];
+		keyframeSnapshots = new BoardSnapshot[16];
+		
+		//Replays everything once to find the resets and take the snapshots
+		int lastKeyframe = 0;
+		for(int move = 0; move < numberOfMoves; move++)
+		{
+			applyMove(move);
+			
+			if(types[move] == MoveJournal.RESET || types[move] == MoveJournal.LOAD)
+			{
+				addKeyframe(move + 1, null);
+				lastKeyframe = move + 1;
+				continue;
+			}
+			
+			//Snapshots are only taken after the first reveal, which uses a random stream that a snapshot can't hold
+			if(move + 1 - lastKeyframe >= this.keyframeInterval && board.getRevealedTiles() > 0)
+			{
+				addKeyframe(move + 1, board.takeSnapshot());
+				lastKeyframe = move + 1;
+			}
+		}
+		position = numberOfMoves;
+	}
+	
+	private void readMoves(ByteBuffer journal) throws IOException
+	{
+		if(journal.remaining() < MoveJournal.HEADER_SIZE || journal.getInt() != MoveJournal.MAGIC_NUMBER)
+		{
+			throw new IOException("Not a move journal");
+		}
+		int version = journal.getInt();
+		if(version < 1 || version > MoveJournal.VERSION)
+		{
+			throw new IOException("Unsupported move journal version " + version);
+		}
+		long time = journal.getLong();
+		
+		int capacity = 1024;
+		types = new byte[capacity];
+		rows = new int[capacity];
+		columns = new int[capacity];
+		values = new int[capacity];
+		extras = new int[capacity];
+		times = new long[capacity];
+		resetSeeds = new long[16];
+		resetSettings = new int[16];
+		resetBitmaps = new LongBuffer[16];
+		
+		while(journal.hasRemaining())
+		{
+			if(numberOfMoves == types.length)
+			{
+				capacity *= 2;
+				types = Arrays.copyOf(types, capacity);
+				rows = Arrays.copyOf(rows, capacity);
+				columns = Arrays.copyOf(columns, capacity);
+				values = Arrays.copyOf(values, capacity);
+				extras = Arrays.copyOf(extras, capacity);
+				times = Arrays.copyOf(times, capacity);
+			}
+			
+			int move = numberOfMoves;
+			types[move] = journal.get();
+			switch(types[move])
+			{
+				case MoveJournal.RESET:
+				case MoveJournal.LOAD:
+					rows[move] = readVarint(journal);
+					columns[move] = readVarint(journal);
+					values[move] = readVarint(journal);
+					if(numberOfResets == resetSeeds.length)
+					{
+						resetSeeds = Arrays.copyOf(resetSeeds, numberOfResets * 2);
+						resetSettings = Arrays.copyOf(resetSettings, numberOfResets * 2);
+						resetBitmaps = Arrays.copyOf(resetBitmaps, numberOfResets * 2);
+					}
+					resetSeeds[numberOfResets] = journal.getLong();
+					resetSettings[numberOfResets] = readVarint(journal);
+					if(types[move] == MoveJournal.LOAD)
+					{
+						resetBitmaps[numberOfResets] = readBitmap(journal, rows[move], columns[move]);
+					}
+					extras[move] = numberOfResets++;
+					break;
+				case MoveJournal.REVEAL:
+				case MoveJournal.CHORD:
+					rows[move] = readVarint(journal);
+					columns[move] = readVarint(journal);
+					break;
+				case MoveJournal.FLAG:
+					rows[move] = readVarint(journal);
+					columns[move] = readVarint(journal);
+					values[move] = readVarint(journal);
+					break;
+				case MoveJournal.UNDO:
+				case MoveJournal.REDO:
+					break;
+				default:
+					throw new IOException("Unknown move type " + types[move] + " in move journal");
+			}
+			time += readVarint(journal);
+			times[move] = time;
+			numberOfMoves++;
+		}
+	}
+	
+	//Returns a view of the mine bitmap of a loaded board and skips past it. The bitmap isn't copied.
+	private static LongBuffer readBitmap(ByteBuffer journal, int rows, int columns) throws IOException
+	{
+		long bitmapSize = ((long) rows * columns + 63) / 64 * 8;
+		if(bitmapSize > journal.remaining())
+		{
+			throw new IOException("The move journal ends inside the mines of a loaded board");
+		}
+		ByteBuffer bitmap = journal.slice();
+		bitmap.limit((int) bitmapSize);
+		journal.position(journal.position() + (int) bitmapSize);
+		return bitmap.asLongBuffer();
+	}
+	
+	private static int readVarint(ByteBuffer journal)
+	{
+		int value = 0;
+		for(int shift = 0; ; shift += 7)
+		{
+			byte part = journal.get();
+			value |= (part & 0x7F) << shift;
+			if(part >= 0)
+			{
+				return value;
+			}
+		}
+	}
+	
+	private void addKeyframe(int move, BoardSnapshot snapshot)
+	{
+		if(numberOfKeyframes == keyframeMoves.length)
+		{
+			keyframeMoves = Arrays.copyOf(keyframeMoves, numberOfKeyframes * 2);
+			keyframeSnapshots = Arrays.copyOf(keyframeSnapshots, numberOfKeyframes * 2);
+		}
+		keyframeMoves[numberOfKeyframes] = move;
+		keyframeSnapshots[numberOfKeyframes] = snapshot;
+		numberOfKeyframes++;
+	}
+	
+	private void applyMove(int move)
+	{
+		switch(types[move])
+		{
+			case MoveJournal.RESET:
+				int settings = resetSettings[extras[move]];
+				board.setParallelGeneration((settings & 1) != 0);
+				board.setFirstRevealMode(FIRST_REVEAL_MODES[settings >>> 1]);
+				board.resetBoard(rows[move], columns[move], values[move], resetSeeds[extras[move]]);
+				break;
+			case MoveJournal.LOAD:
+				settings = resetSettings[extras[move]];
+				board.setParallelGeneration((settings & 1) != 0);
+				board.setFirstRevealMode(FIRST_REVEAL_MODES[settings >>> 1]);
+				board.loadMines(rows[move], columns[move], values[move], resetSeeds[extras[move]], resetBitmaps[extras[move]]);
+				break;
+			case MoveJournal.REVEAL:
+				board.revealTile(rows[move], columns[move]);
+				break;
+			case MoveJournal.CHORD:
+				board.chordTile(rows[move], columns[move]);
+				break;
+			case MoveJournal.FLAG:
+				board.flagTile(rows[move], columns[move], FLAG_STATES[values[move]]);
+				break;
+			case MoveJournal.UNDO:
+				board.undo();
+				break;
+			case MoveJournal.REDO:
+				board.redo();
+				break;
+			default:
+				break;
+		}
+	}
+	
+	/**
+	 * Puts the board into the state it was in after the first move moves were made
+	 * @param move - the number of moves to have applied, between 0 and numberOfMoves()
+	 */
+	public void seek(int move)
+	{
+		move = Math.max(0, Math.min(move, numberOfMoves));
+		
+		//Finds the last keyframe at or before the move
+		int keyframe = Arrays.binarySearch(keyframeMoves, 0, numberOfKeyframes, move);
+		if(keyframe < 0)
+		{
+			keyframe = -keyframe - 2;
+		}
+		
+		//Jumps to the keyframe unless the board is already between it and the move
+		if(keyframe >= 0 && (move < position || keyframeMoves[keyframe] > position))
+		{
+			position = keyframeMoves[keyframe];
+			if(keyframeSnapshots[keyframe] != null)
+			{
+				board.restoreSnapshot(keyframeSnapshots[keyframe]);
+			}
+			else
+			{
+				applyMove(position - 1);
+			}
+		}
+		else if(keyframe < 0 && move < position)
+		{
+			//Nothing before the first reset can be replayed onto a board
+			position = 0;
+			board.resetBoard(1, 1, 0, 0);
+		}
+		
+		while(position < move)
+		{
+			applyMove(position++);
+		}
+	}
+	
+	public MinesweeperBoard getBoard()
+	{
+		return board;
+	}
+	
+	public int numberOfMoves()
+	{
+		return numberOfMoves;
+	}
+	
+	//Returns the number of moves that have been applied to the board
+	public int getPosition()
+	{
+		return position;
+	}
+	
+	//Returns the type of a move, one of the move type constants in MoveJournal
+	public byte getMoveType(int move)
+	{
+		return types[move];
+	}
+	
+	//Returns when a move was made, in milliseconds since the epoch
+	public long getMoveTime(int move)
+	{
+		return times[move];
+	}
+}
@@ -1,291 +1,1083 @@
-/**
- * MinesweeperBoard - Contains the tiles on the minesweeper board and controls functions related to them
- * 
- * @author Dylan Weber
- * @version 6/3/2018
- */
-
-package game;
-
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Random;
-
-import controllers.UIManager;
-import game.Tile.FlagState;
-
-public class MinesweeperBoard
-{
-	private Tile[][] tiles;
-	private UIManager controller;
-	private int numberOfMines;
-	private int revealedTiles;
-	private boolean gameLost;
-	
-	public MinesweeperBoard(UIManager controller, int rows, int columns, int numberOfMines)
-	{
-		this.controller = controller;
-		resetBoard(rows, columns, numberOfMines);
-	}
-	
-	//Creates a board of a set size, adds tiles to it, and sets some of them to be mines
-	public void resetBoard(int rows, int columns, int numberOfMines)
-	{
-		int totalTiles =  rows * columns;
-		
-		if (numberOfMines > totalTiles)
-		{
-			//Caps the number of mines at the number of tiles
-			numberOfMines = totalTiles;
-		}
-		
-		this.numberOfMines = numberOfMines;
-		this.revealedTiles = 0;
-		this.gameLost = false;
-		
-		ArrayList<Tile> unchosenTiles = new ArrayList<>(totalTiles);
-
-		//Checks if the board already exists to save memory and time
-		if(tiles != null && rows == numberOfRows() && columns == numberOfColumns())
-		{
-			for (int i = 0; i < rows; i++)
-			{
-				for (int j = 0; j < columns; j++)
-				{
-					Tile currentTile = getTile(i, j);
-					currentTile.resetTile();
-					unchosenTiles.add(currentTile);
-				}
-			}
-		}
-		else
-		{
-			this.tiles = new Tile[rows][columns];
-
-			for (int i = 0; i < rows; i++)
-			{
-				for (int j = 0; j < columns; j++)
-				{
-					setTile(i, j, new Tile(this, i, j));
-					unchosenTiles.add(getTile(i, j));
-				}
-			}
-		}
-		
-		//Add mines
-		Random mineChooser = new Random();
-		for (int i = 0; i < numberOfMines; i++)
-		{
-			int tileNum = mineChooser.nextInt(unchosenTiles.size());
-					
-			//Removes a randomly chosen tile from the list and makes it a mine
-			//Removal ensures it won't be chosen again.
-			unchosenTiles.remove(tileNum).setMine(true);
-		}
-		
-		//Sets the number of surrounding mines for each mine
-		for(int i = 0; i < rows; i++)
-		{
-			for(int j = 0; j < columns; j++)
-			{
-				getTile(i, j).setNumberOfSurroundingMines(countNumberOfSurroundingMines(i, j));
-			}
-		}
-	}
-	
-	/**
-	 * Reveals a tile clicked on by the player. If it reveals a mine, the player loses.
-	 * Calls recursiveRevealTile() to reveal all surrounding tiles as well.
-	 * @param row - The row of the tile being revealed
-	 * @param column - The column of the tile being revealed
-	 * @return - true if the tile is a mine. false if it isn't.
-	 */
-	public void revealTile(int row, int column)
-	{
-		Tile currentTile = getTile(row, column);
-
-		if (currentTile != null && !currentTile.isRevealed())
-		{
-			if(revealedTiles == 0)
-			{
-				firstRevealCheck(row, column);
-			}
-			
-			currentTile.setFlagState(FlagState.NONE);
-			currentTile.setRevealed(true);
-			if(!currentTile.isMine())
-			{
-				revealedTiles++;
-			}
-			
-			if (!currentTile.isMine() && currentTile.getNumberOfSurroundingMines() == 0)
-			{
-				revealTile(row, column - 1);
-				revealTile(row, column + 1);
-				revealTile(row - 1, column);
-				revealTile(row - 1, column - 1);
-				revealTile(row - 1, column + 1);
-				revealTile(row + 1, column);
-				revealTile(row + 1, column - 1);
-				revealTile(row + 1, column + 1);
-			}
-			
-			if(currentTile.isMine())
-			{
-				gameLost = true;
-			}
-		}
-	}
-	
-	/**
-	 * Makes sure the player doesn't click on a mine on the first turn
-	 */
-	private void firstRevealCheck(int row, int column)
-	{
-		Tile currentTile = getTile(row, column);
-		
-		if(currentTile.isMine()) 
-		{
-			outer:
-			for (int i = 0; i < numberOfRows(); i++)
-			{
-				for (int j = 0; j < numberOfColumns(); j++)
-				{
-					Tile loopTile = getTile(i, j);
-					if(!(i == row && j == column) && !loopTile.isMine())
-					{
-						loopTile.setMine(true);
-						currentTile.setMine(false);
-						
-						//Updates the clicked tiles and the surrounding tiles
-						for(Tile tile : getSurroundingTiles(i, j))
-						{
-							if(tile != null)
-							{
-								tile.setNumberOfSurroundingMines(tile.getNumberOfSurroundingMines() + 1);
-							}
-						}
-						
-						for(Tile tile : getSurroundingTiles(row, column))
-						{
-							if(tile != null)
-							{
-								tile.setNumberOfSurroundingMines(tile.getNumberOfSurroundingMines() - 1);
-							}
-						}
-						
-						break outer;
-					}
-				}
-			}
-		}
-	}
-	
-	//Returns a list of tiles that surround the tile at (row, column)
-	private List<Tile> getSurroundingTiles(int row, int column)
-	{
-		ArrayList<Tile> surroundingTiles = new ArrayList<>();
-		surroundingTiles.add(getTile(row, column - 1));
-		surroundingTiles.add(getTile(row, column + 1));
-		surroundingTiles.add(getTile(row - 1, column));
-		surroundingTiles.add(getTile(row - 1, column - 1));
-		surroundingTiles.add(getTile(row - 1, column + 1));
-		surroundingTiles.add(getTile(row + 1, column));
-		surroundingTiles.add(getTile(row + 1, column - 1));
-		surroundingTiles.add(getTile(row + 1, column + 1));
-
-		return surroundingTiles;
-	}
-	
-	//Returns the number of surrounding tiles that contain mines
-	private int countNumberOfSurroundingMines(int row, int column)
-	{
-		int mineCount = 0;
-		for(Tile tile: getSurroundingTiles(row, column))
-		{
-			if(tile != null && tile.isMine())
-			{
-				mineCount++;
-			}
-		}
-		
-		return mineCount;
-	}
-	
-	//Reveals every tile on the board
-	public void revealAllTiles()
-	{
-		for (int i = 0; i < numberOfRows(); i++)
-		{
-			for (int j = 0; j < numberOfColumns(); j++)
-			{
-				Tile currentTile = getTile(i, j);
-				currentTile.setRevealed(true);
-				if(currentTile.getFlagState() == FlagState.FLAG )
-				{
-					if(!currentTile.isMine())
-					{
-						currentTile.setFlagState(FlagState.FALSE_FLAG);
-					}
-				}
-				else
-				{
-					currentTile.setFlagState(FlagState.NONE);
-				}
-			}
-		}
-	}
-		
-	public int numberOfRows()
-	{
-		return tiles.length;
-	}
-	
-	public int numberOfColumns()
-	{
-		return tiles[0].length;
-	}
-	
-	public int numberOfTilesLeft()
-	{
-		return numberOfRows() * numberOfColumns() - revealedTiles;
-	}
-	
-	public boolean gameLost()
-	{
-		return gameLost;
-	}
-	
-	public boolean gameWon()
-	{
-		return numberOfMines == 0 || numberOfTilesLeft() <= numberOfMines;
-	}
-	
-	/**
-	 * @param row - the row of the tile
-	 * @param column - the column of the tile
-	 * @return - The tile at position (row, column) - if row or column are out of bounds, it returns null
-	 */
-	public Tile getTile(int row, int column)
-	{
-		if (row >= 0 && row < numberOfRows() && column >= 0 && column < numberOfColumns())
-		{
-			return tiles[row][column];
-		}
-		else
-		{
-			return null;
-		}
-	}
-	
-	private void setTile(int row, int column, Tile tile)
-	{
-		tiles[row][column] = tile;
-	}
-	
-	//Returns the controller object that manages the graphical component of the board
-	public UIManager getController()
-	{
-		return controller;
-	}
-}
+/**
+ * MinesweeperBoard - Contains the tiles on the minesweeper board and controls functions related to them
+ * 
+ * @author Dylan Weber
+ * @version 6/3/2018
+ */
+
+package game;
+
+import java.nio.LongBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import game.Tile.FlagState;
+import metrics.BoardResetEvent;
+import metrics.Metrics;
+import metrics.RevealEvent;
+
+public class MinesweeperBoard
+{
+	//What the first reveal of a game is guaranteed to open
+	public enum FirstRevealMode
+	{
+		//The revealed tile is never a mine
+		SAFE_TILE,
+		//The revealed tile and the tiles around it are never mines, so the first reveal always opens an area
+		SAFE_OPENING,
+		//Like SAFE_OPENING, and the mines are placed again so that the rest of the board can be solved without
+		//guessing. Falls back to SAFE_OPENING when no such board turns up within a bounded search, which is
+		//likely on large boards, and always on boards with more than MAX_NO_GUESS_TILES tiles.
+		NO_GUESS;
+	}
+	
+	//The largest board that NO_GUESS searches for a layout needing no guesses
+	public static final int MAX_NO_GUESS_TILES = NoGuessGenerator.MAX_TILES;
+	
+	//One byte per tile, stored row by row. See Cells for the layout of each byte.
+	private byte[] cells;
+	private int rows;
+	private int columns;
+	private BoardListener listener;
+	private int numberOfMines;
+	private int revealedTiles;
+	private boolean gameLost;
+	private boolean parallelGeneration;
+	private boolean parallelReveal;
+	private FirstRevealMode firstRevealMode = FirstRevealMode.SAFE_TILE;
+	private long seed;
+	//Picks where mines are moved to on the first reveal. It is split off the seed before placing mines so that
+	//it doesn't depend on how many random numbers placing the mines used.
+	private SplittableRandom firstRevealChooser;
+	//The search for a board needing no guesses made ahead of the first reveal by prepareFirstReveal, or null.
+	//It has already taken its seed from firstRevealChooser, so the first reveal uses that seed whatever happens.
+	private FirstRevealSearch firstRevealSearch;
+	//On boards that are mostly mines, the tiles that are free (in no particular order) so that a mine can be moved onto one
+	//without searching. Only the first numberOfFreeTiles entries are used. null when free tiles are easy to find at random.
+	private int[] freeTiles;
+	private int numberOfFreeTiles;
+	private MoveJournal journal;
+	//The moves that can be undone and redone, or null when they aren't kept
+	private MoveHistory history;
+	//The openings of the current mines, found by the first reveal that needs them. null whenever a mine or count changes.
+	private BoardOpenings openings;
+	//The 3BV of boards too large to keep their openings, or -1 until it is counted. Forgotten along with the openings.
+	private int threeBV = -1;
+	
+	//Creates a board that isn't displayed anywhere
+	public MinesweeperBoard(int rows, int columns, int numberOfMines)
+	{
+		this(null, rows, columns, numberOfMines);
+	}
+	
+	public MinesweeperBoard(BoardListener listener, int rows, int columns, int numberOfMines)
+	{
+		this.listener = listener;
+		resetBoard(rows, columns, numberOfMines);
+	}
+	
+	//Creates a board of a set size, adds tiles to it, and sets some of them to be mines
+	public void resetBoard(int rows, int columns, int numberOfMines)
+	{
+		resetBoard(rows, columns, numberOfMines, new SplittableRandom().nextLong());
+	}
+	
+	/**
+	 * Creates a board whose mines are chosen by a seed. The same seed, size and number of mines always give
+	 * the same mines, as long as parallel generation is set the same way.
+	 */
+	public void resetBoard(int rows, int columns, int numberOfMines, long seed)
+	{
+		BoardResetEvent event = new BoardResetEvent();
+		event.begin();
+		long start = System.nanoTime();
+		
+		int totalTiles = prepareBoard(rows, columns, numberOfMines, seed);
+		//Placing the mines uses the rest of the random stream after firstRevealChooser was split off
+		SplittableRandom mineChooser = new SplittableRandom(seed);
+		mineChooser.split();
+		
+		if(parallelGeneration && totalTiles >= BoardGenerator.PARALLEL_GENERATION_THRESHOLD)
+		{
+			BoardGenerator.generateInParallel(cells, rows, columns, this.numberOfMines, mineChooser);
+		}
+		else
+		{
+			freeTiles = BoardGenerator.placeMines(cells, 0, totalTiles, this.numberOfMines, mineChooser);
+			numberOfFreeTiles = freeTiles == null ? 0 : freeTiles.length;
+			updateSurroundingMineCounts();
+		}
+		
+		Metrics.BOARD_RESET_TIME.record(System.nanoTime() - start);
+		if(event.shouldCommit())
+		{
+			event.rows = rows;
+			event.columns = columns;
+			event.mines = this.numberOfMines;
+			event.parallel = parallelGeneration && totalTiles >= BoardGenerator.PARALLEL_GENERATION_THRESHOLD;
+			event.commit();
+		}
+		
+		recordReset();
+	}
+	
+	private void recordReset()
+	{
+		if(journal != null)
+		{
+			journal.recordReset(rows, columns, numberOfMines, seed, parallelGeneration, firstRevealMode);
+		}
+	}
+	
+	/**
+	 * Creates a board with mines where the bits of mineBitmap are set. Bit i of the bitmap is the tile
+	 * at row i / columns and column i % columns, and bit i is bit (i % 64) of long number i / 64.
+	 * Used by BoardFile to load a saved board instead of generating it again.
+	 */
+	void loadMines(int rows, int columns, int numberOfMines, long seed, LongBuffer mineBitmap)
+	{
+		int totalTiles = prepareBoard(rows, columns, numberOfMines, seed);
+		
+		for(int word = 0; word * 64 < totalTiles; word++)
+		{
+			long bits = mineBitmap.get(word);
+			int start = word * 64, end = Math.min(start + 64, totalTiles);
+			if(bits == 0)
+			{
+				Arrays.fill(cells, start, end, (byte) 0);
+				continue;
+			}
+			for(int index = start; index < end; index++)
+			{
+				cells[index] = (byte) ((int) (bits >>> index & 1L) * Cells.MINE);
+			}
+		}
+		
+		if(parallelGeneration && totalTiles >= BoardGenerator.PARALLEL_GENERATION_THRESHOLD)
+		{
+			BoardGenerator.countSurroundingMinesInParallel(cells, rows, columns);
+		}
+		else
+		{
+			updateSurroundingMineCounts();
+		}
+		
+		//The mines may have been saved after the first reveal moved them, so the journal keeps them all instead of the seed
+		if(journal != null)
+		{
+			journal.recordLoad(rows, columns, this.numberOfMines, seed, parallelGeneration, firstRevealMode, mineBitmap);
+		}
+	}
+	
+	//Sets up an empty board of the given size and the state shared by new and loaded boards. Returns the number of tiles.
+	private int prepareBoard(int rows, int columns, int numberOfMines, long seed)
+	{
+		int totalTiles = rows * columns;
+		
+		if (numberOfMines > totalTiles)
+		{
+			//Caps the number of mines at the number of tiles
+			numberOfMines = totalTiles;
+		}
+		
+		this.numberOfMines = numberOfMines;
+		this.revealedTiles = 0;
+		this.gameLost = false;
+		this.seed = seed;
+		this.firstRevealChooser = new SplittableRandom(seed).split();
+		this.firstRevealSearch = null;
+		this.freeTiles = null;
+		this.numberOfFreeTiles = 0;
+		this.openings = null;
+		this.threeBV = -1;
+		if(history != null)
+		{
+			history.clear();
+		}
+		
+		//Reuses the tiles of the last board when it had as many of them, even if its shape was different. The caller overwrites every tile.
+		if(cells == null || cells.length != totalTiles)
+		{
+			this.cells = new byte[totalTiles];
+		}
+		this.rows = rows;
+		this.columns = columns;
+		
+		return totalTiles;
+	}
+	
+	//Returns the packed tiles, row by row, for BoardFile to save
+	byte[] getCells()
+	{
+		return cells;
+	}
+	
+	//Sets the number of surrounding mines for every tile from where the mines currently are
+	public void updateSurroundingMineCounts()
+	{
+		openings = null;
+		threeBV = -1;
+		BoardGenerator.countSurroundingMines(cells, rows, columns, 0, rows);
+	}
+	
+	//Adds change to the number of surrounding mines of the (up to) eight tiles around (row, column)
+	private void addToSurroundingCounts(int row, int column, int change)
+	{
+		int firstRow = Math.max(row - 1, 0), lastRow = Math.min(row + 1, rows - 1);
+		int firstColumn = Math.max(column - 1, 0), lastColumn = Math.min(column + 1, columns - 1);
+		
+		for(int i = firstRow; i <= lastRow; i++)
+		{
+			for(int j = firstColumn; j <= lastColumn; j++)
+			{
+				if(i != row || j != column)
+				{
+					int index = i * columns + j;
+					recordChange(index);
+					//The count is in the low bits of the cell, so it can be changed by adding to the whole byte
+					cells[index] += change;
+					notifyTileChanged(index);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Reveals a tile clicked on by the player. If it reveals a mine, the player loses.
+	 * If the tile has no surrounding mines, the opening around it is looked up and revealed.
+	 * Boards too large to keep their openings use an iterative flood fill instead, so the size
+	 * of the opening is only limited by the heap.
+	 * @param row - The row of the tile being revealed
+	 * @param column - The column of the tile being revealed
+	 * @return - The tiles that were opened by this reveal, in the order they were opened
+	 */
+	public List<Tile> revealTile(int row, int column)
+	{
+		TileList openedTiles = new TileList(this);
+
+		if (!isInBounds(row, column) || Cells.isRevealed(getCell(row, column)))
+		{
+			return openedTiles;
+		}
+		
+		if(journal != null)
+		{
+			journal.recordReveal(row, column);
+		}
+		beginMove();
+		
+		RevealEvent event = new RevealEvent();
+		event.begin();
+		long start = System.nanoTime();
+		
+		if(revealedTiles == 0)
+		{
+			firstRevealCheck(row, column);
+		}
+		
+		openTile(row * columns + column, openedTiles);
+		int floodDepth = openEmptyRegions(openedTiles);
+		endMove(false);
+		
+		Metrics.REVEAL_TIME.record(System.nanoTime() - start);
+		Metrics.TILES_OPENED.record(openedTiles.size());
+		if(cells.length > BoardOpenings.MAX_TILES)
+		{
+			Metrics.FLOOD_DEPTH.record(floodDepth);
+		}
+		if(event.shouldCommit())
+		{
+			event.row = row;
+			event.column = column;
+			event.tilesOpened = openedTiles.size();
+			event.floodDepth = floodDepth;
+			event.boardTiles = cells.length;
+			event.commit();
+		}
+		
+		return openedTiles;
+	}
+	
+	/**
+	 * Chords on a revealed number: once as many tiles around it are flagged as the number says, every other
+	 * hidden tile around it is revealed in one move, along with the openings of any that have no surrounding
+	 * mines. Tiles with a flag or question mark are left alone. Nothing happens if the flags don't match.
+	 * @param row - The row of the revealed number
+	 * @param column - The column of the revealed number
+	 * @return - The tiles that were opened by this chord, in the order they were opened
+	 */
+	public List<Tile> chordTile(int row, int column)
+	{
+		TileList openedTiles = new TileList(this);
+		
+		if(!isInBounds(row, column) || gameLost)
+		{
+			return openedTiles;
+		}
+		byte cell = getCell(row, column);
+		if(!Cells.isRevealed(cell) || Cells.isMine(cell) || Cells.numberOfSurroundingMines(cell) == 0)
+		{
+			return openedTiles;
+		}
+		
+		int firstRow = Math.max(row - 1, 0), lastRow = Math.min(row + 1, rows - 1);
+		int firstColumn = Math.max(column - 1, 0), lastColumn = Math.min(column + 1, columns - 1);
+		int flags = 0;
+		for(int i = firstRow; i <= lastRow; i++)
+		{
+			for(int j = firstColumn; j <= lastColumn; j++)
+			{
+				byte surroundingCell = cells[i * columns + j];
+				if(!Cells.isRevealed(surroundingCell) && Cells.flagState(surroundingCell) == FlagState.FLAG)
+				{
+					flags++;
+				}
+			}
+		}
+		if(flags != Cells.numberOfSurroundingMines(cell))
+		{
+			return openedTiles;
+		}
+		
+		if(journal != null)
+		{
+			journal.recordChord(row, column);
+		}
+		beginMove();
+		
+		for(int i = firstRow; i <= lastRow; i++)
+		{
+			for(int j = firstColumn; j <= lastColumn; j++)
+			{
+				int index = i * columns + j;
+				if(!Cells.isRevealed(cells[index]) && Cells.flagState(cells[index]) == FlagState.NONE)
+				{
+					openTile(index, openedTiles);
+				}
+			}
+		}
+		//Every tile opened above is a starting point of the same fill, so overlapping openings are only filled once
+		openEmptyRegions(openedTiles);
+		endMove(false);
+		
+		return openedTiles;
+	}
+	
+	/**
+	 * Opens the openings of the empty tiles in openedTiles. On boards small enough to keep their openings
+	 * each one is opened from its list, and 0 is returned. Larger boards are flood filled and the number of
+	 * steps to the furthest tile is returned.
+	 */
+	private int openEmptyRegions(TileList openedTiles)
+	{
+		if(cells.length > BoardOpenings.MAX_TILES)
+		{
+			return floodFill(openedTiles);
+		}
+		
+		int starts = openedTiles.size();
+		for(int position = 0; position < starts; position++)
+		{
+			int index = openedTiles.getIndex(position);
+			byte cell = cells[index];
+			if(Cells.isMine(cell))
+			{
+				gameLost = true;
+				continue;
+			}
+			if(Cells.numberOfSurroundingMines(cell) != 0)
+			{
+				continue;
+			}
+			
+			if(openings == null)
+			{
+				long start = System.nanoTime();
+				openings = new BoardOpenings(cells, rows, columns);
+				Metrics.OPENINGS_TIME.record(System.nanoTime() - start);
+			}
+			int opening = openings.openingOf(index);
+			//A chord can start from several tiles of the same opening, which only needs opening once
+			boolean opened = false;
+			for(int earlier = 0; earlier < position && !opened; earlier++)
+			{
+				opened = openings.openingOf(openedTiles.getIndex(earlier)) == opening;
+			}
+			if(opened)
+			{
+				continue;
+			}
+			
+			for(int tile = openings.firstTile(opening); tile < openings.endOfTiles(opening); tile++)
+			{
+				int surroundingIndex = openings.tileAt(tile);
+				if(!Cells.isRevealed(cells[surroundingIndex]))
+				{
+					openTile(surroundingIndex, openedTiles);
+				}
+			}
+		}
+		return 0;
+	}
+	
+	/**
+	 * Opens the empty region around the tiles in openedTiles with a breadth first search and returns the
+	 * number of steps it took to reach the furthest tile. Tiles are revealed as they are added to the list,
+	 * so the part of the list that hasn't been looked at yet is the frontier and no separate queue is needed.
+	 */
+	private int floodFill(TileList openedTiles)
+	{
+		int depth = 0;
+		//The end of the tiles that are depth steps away from the revealed tile
+		int depthEnd = openedTiles.size();
+		
+		for(int position = 0; position < openedTiles.size(); position++)
+		{
+			if(position == depthEnd)
+			{
+				depth++;
+				depthEnd = openedTiles.size();
+				
+				//Once the frontier is large enough to share out, the rest of the opening is filled in parallel
+				if(parallelReveal && ParallelFloodFill.isWorthwhile(depthEnd - position))
+				{
+					depth += ParallelFloodFill.fill(cells, rows, columns, openedTiles, position, history != null && history.isRecording() ? history : null);
+					revealedTiles += openedTiles.size() - depthEnd;
+					for(int i = depthEnd; i < openedTiles.size(); i++)
+					{
+						notifyTileChanged(openedTiles.getIndex(i));
+					}
+					return depth;
+				}
+			}
+			
+			int index = openedTiles.getIndex(position);
+			byte cell = cells[index];
+			
+			if(Cells.isMine(cell))
+			{
+				gameLost = true;
+			}
+			else if(Cells.numberOfSurroundingMines(cell) == 0)
+			{
+				int currentRow = index / columns, currentColumn = index % columns;
+				int firstRow = Math.max(currentRow - 1, 0), lastRow = Math.min(currentRow + 1, rows - 1);
+				int firstColumn = Math.max(currentColumn - 1, 0), lastColumn = Math.min(currentColumn + 1, columns - 1);
+				
+				for(int i = firstRow; i <= lastRow; i++)
+				{
+					for(int j = firstColumn; j <= lastColumn; j++)
+					{
+						int surroundingIndex = i * columns + j;
+						if(!Cells.isRevealed(cells[surroundingIndex]))
+						{
+							openTile(surroundingIndex, openedTiles);
+						}
+					}
+				}
+			}
+		}
+		
+		return depth;
+	}
+	
+	//Reveals a single tile, clears its flag and records it as opened
+	private void openTile(int index, TileList openedTiles)
+	{
+		byte cell = cells[index];
+		recordChange(index);
+		cells[index] = Cells.withFlagState(Cells.withRevealed(cell, true), FlagState.NONE);
+		notifyTileChanged(index);
+		openedTiles.addIndex(index);
+		if(!Cells.isMine(cell))
+		{
+			revealedTiles++;
+		}
+	}
+	
+	/**
+	 * Makes sure the player doesn't click on a mine on the first turn. In SAFE_OPENING mode the tiles
+	 * around the clicked tile are cleared as well, unless there aren't enough free tiles to move their mines to.
+	 * Each mine is moved to a random free tile outside of the cleared area, so the mines stay evenly spread.
+	 * In NO_GUESS mode the mines are all placed again instead, if a board that needs no guesses turns up.
+	 */
+	private void firstRevealCheck(int row, int column)
+	{
+		if(history != null)
+		{
+			history.recordFreeTiles(freeTiles, numberOfFreeTiles);
+		}
+		if(firstRevealMode == FirstRevealMode.NO_GUESS && placeMinesWithoutGuessing(row, column))
+		{
+			return;
+		}
+		
+		int firstRow = row, lastRow = row, firstColumn = column, lastColumn = column;
+		if(firstRevealMode != FirstRevealMode.SAFE_TILE)
+		{
+			firstRow = Math.max(row - 1, 0);
+			lastRow = Math.min(row + 1, rows - 1);
+			firstColumn = Math.max(column - 1, 0);
+			lastColumn = Math.min(column + 1, columns - 1);
+		}
+		
+		int clearedTiles = (lastRow - firstRow + 1) * (lastColumn - firstColumn + 1);
+		int minesToMove = countMines(firstRow, lastRow, firstColumn, lastColumn);
+		int freeTilesOutside = cells.length - numberOfMines - (clearedTiles - minesToMove);
+		
+		if(minesToMove > freeTilesOutside && firstRevealMode != FirstRevealMode.SAFE_TILE)
+		{
+			//The board is too full to clear an opening, so only the clicked tile is kept safe
+			firstRow = lastRow = row;
+			firstColumn = lastColumn = column;
+			minesToMove = countMines(row, row, column, column);
+			freeTilesOutside = cells.length - numberOfMines;
+		}
+		
+		if(minesToMove == 0 || minesToMove > freeTilesOutside)
+		{
+			return;
+		}
+		
+		for(int i = firstRow; i <= lastRow; i++)
+		{
+			for(int j = firstColumn; j <= lastColumn; j++)
+			{
+				int index = i * columns + j;
+				if(Cells.isMine(cells[index]))
+				{
+					int newIndex = takeFreeTileOutside(firstRow, lastRow, firstColumn, lastColumn);
+					setCell(newIndex, Cells.withMine(cells[newIndex], true));
+					setCell(index, Cells.withMine(cells[index], false));
+					
+					//Updates the surrounding tiles of both the new mine and the old one
+					addToSurroundingCounts(newIndex / columns, newIndex % columns, 1);
+					addToSurroundingCounts(i, j, -1);
+				}
+			}
+		}
+	}
+	
+	//Replaces every mine with a layout that can be solved from (row, column) without guessing. Returns false if none was found.
+	private boolean placeMinesWithoutGuessing(int row, int column)
+	{
+		long start = System.nanoTime();
+		FirstRevealSearch search = firstRevealSearch;
+		firstRevealSearch = null;
+		byte[] layout;
+		if(search != null && search.row == row && search.column == column && search.isDone())
+		{
+			layout = search.getLayout();
+		}
+		else
+		{
+			long searchSeed = search != null ? search.seed : firstRevealChooser.nextLong();
+			layout = NoGuessGenerator.generate(rows, columns, numberOfMines, row, column, searchSeed);
+		}
+		Metrics.NO_GUESS_TIME.record(System.nanoTime() - start);
+		
+		if(layout != null)
+		{
+			openings = null;
+			threeBV = -1;
+			freeTiles = null;
+			numberOfFreeTiles = 0;
+			for(int index = 0; index < cells.length; index++)
+			{
+				//Flags are kept
+				byte cell = (byte) (layout[index] | (cells[index] & Cells.FLAG_MASK));
+				if(cell != cells[index])
+				{
+					recordChange(index);
+					cells[index] = cell;
+				}
+				notifyTileChanged(index);
+			}
+		}
+		return layout != null;
+	}
+	
+	/**
+	 * Returns the search for a board needing no guesses that the first reveal at (row, column) would make,
+	 * so that it can be run on another thread first, or null if that reveal makes no search or it has
+	 * already been run. The search doesn't touch the board. Calling revealTile(row, column) once it has
+	 * run uses what it found, and gives the same board as revealing without it.
+	 */
+	public Runnable prepareFirstReveal(int row, int column)
+	{
+		if(firstRevealMode != FirstRevealMode.NO_GUESS || revealedTiles != 0 || gameLost || !isInBounds(row, column) || cells.length > MAX_NO_GUESS_TILES)
+		{
+			return null;
+		}
+		if(firstRevealSearch == null || firstRevealSearch.row != row || firstRevealSearch.column != column)
+		{
+			long searchSeed = firstRevealSearch != null ? firstRevealSearch.seed : firstRevealChooser.nextLong();
+			firstRevealSearch = new FirstRevealSearch(rows, columns, numberOfMines, row, column, searchSeed);
+		}
+		return firstRevealSearch.isDone() ? null : firstRevealSearch;
+	}
+	
+	//Returns the number of mines in the rectangle of tiles between the given rows and columns (inclusive)
+	private int countMines(int firstRow, int lastRow, int firstColumn, int lastColumn)
+	{
+		int mines = 0;
+		for(int i = firstRow; i <= lastRow; i++)
+		{
+			for(int j = firstColumn; j <= lastColumn; j++)
+			{
+				if(Cells.isMine(cells[i * columns + j]))
+				{
+					mines++;
+				}
+			}
+		}
+		return mines;
+	}
+	
+	/**
+	 * Picks a random free tile outside of the given rectangle for a mine to be moved to. When the free tiles
+	 * are indexed, one is taken out of the index in constant time. Otherwise at least half of the board is
+	 * free (or the board was generated in parallel), so random tiles are tried until a free one turns up.
+	 * There must be at least one free tile outside of the rectangle.
+	 */
+	private int takeFreeTileOutside(int firstRow, int lastRow, int firstColumn, int lastColumn)
+	{
+		while(true)
+		{
+			int index;
+			if(freeTiles != null)
+			{
+				//Swaps the chosen entry with the last one so that it can be removed without shifting
+				int position = firstRevealChooser.nextInt(numberOfFreeTiles);
+				index = freeTiles[position];
+				freeTiles[position] = freeTiles[--numberOfFreeTiles];
+			}
+			else
+			{
+				index = firstRevealChooser.nextInt(cells.length);
+			}
+			
+			int row = index / columns, column = index % columns;
+			boolean inside = row >= firstRow && row <= lastRow && column >= firstColumn && column <= lastColumn;
+			if(!inside && !Cells.isMine(cells[index]))
+			{
+				return index;
+			}
+		}
+	}
+	
+	/**
+	 * Reveals every tile on the board. It is undone and redone along with the move before it. Tiles that
+	 * are already revealed are left alone, so revealing the board again after redoing it changes nothing.
+	 */
+	public void revealAllTiles()
+	{
+		beginMove();
+		for (int index = 0; index < cells.length; index++)
+		{
+			if(Cells.isRevealed(cells[index]))
+			{
+				continue;
+			}
+			byte cell = Cells.withRevealed(cells[index], true);
+			if(Cells.flagState(cell) == FlagState.FLAG)
+			{
+				if(!Cells.isMine(cell))
+				{
+					cell = Cells.withFlagState(cell, FlagState.FALSE_FLAG);
+				}
+			}
+			else
+			{
+				cell = Cells.withFlagState(cell, FlagState.NONE);
+			}
+			setCell(index, cell);
+		}
+		endMove(true);
+	}
+	
+	/**
+	 * Takes back the last reveal, chord or flag, along with the board being revealed at the end of the game
+	 * if that came after it. Undoing the first reveal puts back the mines it moved.
+	 * @return - Whether there was a move to undo
+	 */
+	public boolean undo()
+	{
+		if(history == null || !history.canUndo())
+		{
+			return false;
+		}
+		if(journal != null)
+		{
+			journal.recordUndo();
+		}
+		
+		MoveHistory.Move move;
+		do
+		{
+			move = history.undo();
+			//Goes backwards so that a tile changed more than once ends up as it was before the first change
+			for(int change = move.indices.length - 1; change >= 0; change--)
+			{
+				setCell(move.indices[change], move.before[change]);
+			}
+			revealedTiles = move.revealedBefore;
+			gameLost = move.lostBefore;
+			if(move.freeTilesBefore != null)
+			{
+				freeTiles = move.freeTilesBefore.clone();
+				numberOfFreeTiles = freeTiles.length;
+			}
+		}
+		while(move.joinsPrevious);
+		
+		if(revealedTiles == 0)
+		{
+			//The next first reveal moves mines the same way as on a board that was just generated
+			firstRevealChooser = new SplittableRandom(seed).split();
+			firstRevealSearch = null;
+		}
+		return true;
+	}
+	
+	/**
+	 * Makes the last undone move again. Nothing can be redone once a new move has been made.
+	 * @return - Whether there was a move to redo
+	 */
+	public boolean redo()
+	{
+		if(history == null || !history.canRedo())
+		{
+			return false;
+		}
+		if(journal != null)
+		{
+			journal.recordRedo();
+		}
+		
+		do
+		{
+			MoveHistory.Move move = history.redo();
+			for(int change = 0; change < move.indices.length; change++)
+			{
+				setCell(move.indices[change], move.after[change]);
+			}
+			revealedTiles = move.revealedAfter;
+			gameLost = move.lostAfter;
+		}
+		while(history.nextRedoJoinsPrevious());
+		return true;
+	}
+	
+	public boolean canUndo()
+	{
+		return history != null && history.canUndo();
+	}
+	
+	public boolean canRedo()
+	{
+		return history != null && history.canRedo();
+	}
+	
+	public int numberOfRows()
+	{
+		return rows;
+	}
+	
+	public int numberOfColumns()
+	{
+		return columns;
+	}
+	
+	public int getNumberOfMines()
+	{
+		return numberOfMines;
+	}
+	
+	//Returns the seed that chose the mines, which recreates this board when passed to resetBoard
+	public long getSeed()
+	{
+		return seed;
+	}
+	
+	public int numberOfTilesLeft()
+	{
+		return numberOfRows() * numberOfColumns() - revealedTiles;
+	}
+	
+	public boolean gameLost()
+	{
+		return gameLost;
+	}
+	
+	public boolean gameWon()
+	{
+		return numberOfMines == 0 || numberOfTilesLeft() <= numberOfMines;
+	}
+	
+	/**
+	 * Returns the 3BV of the board, the fewest clicks that clear it without flags: one for each opening and
+	 * one for each number that no opening reveals. The first reveal can move mines, so it may change then.
+	 */
+	public int getThreeBV()
+	{
+		if(cells.length > BoardOpenings.MAX_TILES)
+		{
+			if(threeBV < 0)
+			{
+				threeBV = BoardOpenings.countThreeBV(cells, rows, columns);
+			}
+			return threeBV;
+		}
+		if(openings == null)
+		{
+			openings = new BoardOpenings(cells, rows, columns);
+		}
+		return openings.getThreeBV();
+	}
+	
+	/**
+	 * @param row - the row of the tile
+	 * @param column - the column of the tile
+	 * @return - A view of the tile at position (row, column) - if row or column are out of bounds, it returns null
+	 */
+	public Tile getTile(int row, int column)
+	{
+		if (isInBounds(row, column))
+		{
+			return new Tile(this, row, column);
+		}
+		else
+		{
+			return null;
+		}
+	}
+	
+	private boolean isInBounds(int row, int column)
+	{
+		return row >= 0 && row < numberOfRows() && column >= 0 && column < numberOfColumns();
+	}
+	
+	byte getCell(int row, int column)
+	{
+		return cells[row * columns + column];
+	}
+	
+	//Changes the flag on a tile for the player
+	void flagTile(int row, int column, FlagState flagState)
+	{
+		if(journal != null)
+		{
+			journal.recordFlag(row, column, flagState);
+		}
+		beginMove();
+		setCell(row, column, Cells.withFlagState(getCell(row, column), flagState));
+		endMove(false);
+	}
+	
+	//Copies everything needed to put the board back into its current state later
+	BoardSnapshot takeSnapshot()
+	{
+		return new BoardSnapshot(cells.clone(), rows, columns, numberOfMines, revealedTiles, gameLost, seed, history == null ? null : history.copy());
+	}
+	
+	/**
+	 * Puts the board back into the state of a snapshot. The listener is not told about each tile.
+	 * Mines are moved from a fresh random stream if the snapshot was taken before the first reveal.
+	 */
+	void restoreSnapshot(BoardSnapshot snapshot)
+	{
+		if(cells.length == snapshot.cells.length)
+		{
+			System.arraycopy(snapshot.cells, 0, cells, 0, cells.length);
+		}
+		else
+		{
+			cells = snapshot.cells.clone();
+		}
+		rows = snapshot.rows;
+		columns = snapshot.columns;
+		numberOfMines = snapshot.numberOfMines;
+		revealedTiles = snapshot.revealedTiles;
+		gameLost = snapshot.gameLost;
+		seed = snapshot.seed;
+		firstRevealChooser = new SplittableRandom(seed).split();
+		firstRevealSearch = null;
+		freeTiles = null;
+		numberOfFreeTiles = 0;
+		openings = null;
+		threeBV = -1;
+		if(history != null)
+		{
+			history = snapshot.history != null ? snapshot.history.copy() : new MoveHistory();
+		}
+	}
+	
+	int getRevealedTiles()
+	{
+		return revealedTiles;
+	}
+	
+	//Stores the packed state of a tile and lets the listener know that it changed
+	void setCell(int row, int column, byte cell)
+	{
+		setCell(row * columns + column, cell);
+	}
+	
+	private void setCell(int index, byte cell)
+	{
+		if(((cells[index] ^ cell) & (Cells.MINE | Cells.COUNT_MASK)) != 0)
+		{
+			openings = null;
+			threeBV = -1;
+		}
+		recordChange(index);
+		cells[index] = cell;
+		notifyTileChanged(index);
+	}
+	
+	private void beginMove()
+	{
+		if(history != null)
+		{
+			history.beginMove(revealedTiles, gameLost);
+		}
+	}
+	
+	private void endMove(boolean joinsPrevious)
+	{
+		if(history != null)
+		{
+			history.endMove(cells, revealedTiles, gameLost, joinsPrevious);
+		}
+	}
+	
+	//Keeps what a tile was before the move being made changes it
+	private void recordChange(int index)
+	{
+		if(history != null && history.isRecording())
+		{
+			history.recordChange(index, cells[index]);
+		}
+	}
+	
+	private void notifyTileChanged(int index)
+	{
+		if(listener != null)
+		{
+			listener.tileChanged(index / columns, index % columns);
+		}
+	}
+	
+	public boolean usesParallelGeneration()
+	{
+		return parallelGeneration;
+	}
+	
+	//Generates large boards on every core of the common fork-join pool. Small boards are always generated on one thread.
+	public void setParallelGeneration(boolean parallelGeneration)
+	{
+		this.parallelGeneration = parallelGeneration;
+	}
+	
+	public boolean usesParallelReveal()
+	{
+		return parallelReveal;
+	}
+	
+	//Flood fills huge openings on every core of the common fork-join pool, on boards too large to keep their openings. The same tiles are opened either way.
+	public void setParallelReveal(boolean parallelReveal)
+	{
+		this.parallelReveal = parallelReveal;
+	}
+	
+	public boolean usesUndoHistory()
+	{
+		return history != null;
+	}
+	
+	//Keeps every move of the current game so that it can be undone. Each move keeps about six bytes per tile it changed.
+	public void setUndoHistory(boolean undoHistory)
+	{
+		if(undoHistory != (history != null))
+		{
+			history = undoHistory ? new MoveHistory() : null;
+		}
+	}
+	
+	public MoveJournal getJournal()
+	{
+		return journal;
+	}
+	
+	//Records every reset, reveal, chord and flag on this board in the journal. null stops recording.
+	public void setJournal(MoveJournal journal)
+	{
+		this.journal = journal;
+	}
+	
+	public FirstRevealMode getFirstRevealMode()
+	{
+		return firstRevealMode;
+	}
+	
+	//Takes effect on the next first reveal, so it can be changed before the first click of a game
+	public void setFirstRevealMode(FirstRevealMode firstRevealMode)
+	{
+		this.firstRevealMode = firstRevealMode;
+	}
+	
+	//Returns the object that is told about changes to the tiles, or null if there isn't one
+	public BoardListener getListener()
+	{
+		return listener;
+	}
+	
+	public void setListener(BoardListener listener)
+	{
+		this.listener = listener;
+	}
+	
+	//A search for a board needing no guesses, made on another thread ahead of the first reveal
+	private static class FirstRevealSearch implements Runnable
+	{
+		final int rows, columns, numberOfMines;
+		final int row, column;
+		final long seed;
+		//Written before done is set, so it can be read by any thread that has seen done
+		private byte[] layout;
+		private volatile boolean done;
+		
+		FirstRevealSearch(int rows, int columns, int numberOfMines, int row, int column, long seed)
+		{
+			this.rows = rows;
+			this.columns = columns;
+			this.numberOfMines = numberOfMines;
+			this.row = row;
+			this.column = column;
+			this.seed = seed;
+		}
+		
+		@Override
+		public void run()
+		{
+			if(!done)
+			{
+				layout = NoGuessGenerator.generate(rows, columns, numberOfMines, row, column, seed);
+				done = true;
+			}
+		}
+		
+		boolean isDone()
+		{
+			return done;
+		}
+		
+		//The cells found, or null if there were none
+		byte[] getLayout()
+		{
+			return layout;
+		}
+	}
+}
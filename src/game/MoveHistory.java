@@ -0,0 +1,187 @@
+/**
+ * MoveHistory - The moves made on a board, kept so that they can be undone and redone
+ * 
+ * A move is stored as the tiles it changed, with their packed cells from before and after it, so it
+ * takes memory in proportion to the tiles it touched and undoing it costs as much as making it did.
+ * Finished moves never change, so copies of the history for snapshots share them instead of copying.
+ * 
+ * @author Dylan Weber
+ * @version 6/3/2018
+ */
+package game;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+final class MoveHistory
+{
+	//A finished move
+	static final class Move
+	{
+		final int[] indices;
+		final byte[] before, after;
+		final int revealedBefore, revealedAfter;
+		final boolean lostBefore, lostAfter;
+		//The board's free tile index before the first reveal took tiles out of it, or null
+		final int[] freeTilesBefore;
+		//Set for changes that are undone and redone along with the move before them, like revealing the board at the end of a game
+		final boolean joinsPrevious;
+		
+		Move(int[] indices, byte[] before, byte[] after, int revealedBefore, int revealedAfter, boolean lostBefore, boolean lostAfter, int[] freeTilesBefore, boolean joinsPrevious)
+		{
+			this.indices = indices;
+			this.before = before;
+			this.after = after;
+			this.revealedBefore = revealedBefore;
+			this.revealedAfter = revealedAfter;
+			this.lostBefore = lostBefore;
+			this.lostAfter = lostAfter;
+			this.freeTilesBefore = freeTilesBefore;
+			this.joinsPrevious = joinsPrevious;
+		}
+	}
+	
+	private final List<Move> moves;
+	//The number of moves that are done. The rest can be redone until a new move is made.
+	private int doneMoves;
+	
+	//The move being recorded: each change's tile and the cell before it. A tile can be listed more than once.
+	private boolean recording;
+	private int[] indices = new int[64];
+	private byte[] before = new byte[64];
+	private int numberOfChanges;
+	private int revealedBefore;
+	private boolean lostBefore;
+	private int[] freeTilesBefore;
+	
+	MoveHistory()
+	{
+		moves = new ArrayList<>();
+	}
+	
+	//Returns a history with the same moves that can be added to without changing this one
+	MoveHistory copy()
+	{
+		return new MoveHistory(new ArrayList<>(moves), doneMoves);
+	}
+	
+	private MoveHistory(List<Move> moves, int doneMoves)
+	{
+		this.moves = moves;
+		this.doneMoves = doneMoves;
+	}
+	
+	void clear()
+	{
+		moves.clear();
+		doneMoves = 0;
+		recording = false;
+		numberOfChanges = 0;
+	}
+	
+	void beginMove(int revealedTiles, boolean gameLost)
+	{
+		recording = true;
+		numberOfChanges = 0;
+		revealedBefore = revealedTiles;
+		lostBefore = gameLost;
+		freeTilesBefore = null;
+	}
+	
+	boolean isRecording()
+	{
+		return recording;
+	}
+	
+	//Records the cell of a tile before the current move changes it
+	void recordChange(int index, byte cell)
+	{
+		if(numberOfChanges == indices.length)
+		{
+			indices = Arrays.copyOf(indices, numberOfChanges * 2);
+			before = Arrays.copyOf(before, numberOfChanges * 2);
+		}
+		indices[numberOfChanges] = index;
+		before[numberOfChanges] = cell;
+		numberOfChanges++;
+	}
+	
+	//Records the first count tiles in tileIndices, whose cells before the current move changed them are in cellsBefore
+	void recordChanges(int[] tileIndices, byte[] cellsBefore, int count)
+	{
+		if(numberOfChanges + count > indices.length)
+		{
+			int capacity = Math.max(indices.length * 2, numberOfChanges + count);
+			indices = Arrays.copyOf(indices, capacity);
+			before = Arrays.copyOf(before, capacity);
+		}
+		System.arraycopy(tileIndices, 0, indices, numberOfChanges, count);
+		System.arraycopy(cellsBefore, 0, before, numberOfChanges, count);
+		numberOfChanges += count;
+	}
+	
+	//Keeps the free tile index from before the first reveal, which moves mines out of it
+	void recordFreeTiles(int[] freeTiles, int numberOfFreeTiles)
+	{
+		freeTilesBefore = freeTiles == null ? null : Arrays.copyOf(freeTiles, numberOfFreeTiles);
+	}
+	
+	/**
+	 * Finishes the current move, reading what each changed tile became from cells. A move that left every tile as
+	 * it was, or that should join a move when there is none, is dropped. Anything else stops the undone moves from
+	 * being redone.
+	 */
+	void endMove(byte[] cells, int revealedTiles, boolean gameLost, boolean joinsPrevious)
+	{
+		recording = false;
+		int[] moveIndices = Arrays.copyOf(indices, numberOfChanges);
+		byte[] after = new byte[numberOfChanges];
+		boolean changed = false;
+		for(int change = 0; change < numberOfChanges; change++)
+		{
+			after[change] = cells[moveIndices[change]];
+			changed |= after[change] != before[change];
+		}
+		
+		if(!changed || (joinsPrevious && doneMoves == 0))
+		{
+			numberOfChanges = 0;
+			return;
+		}
+		
+		moves.subList(doneMoves, moves.size()).clear();
+		moves.add(new Move(moveIndices, Arrays.copyOf(before, numberOfChanges), after, revealedBefore, revealedTiles,
+				lostBefore, gameLost, freeTilesBefore, joinsPrevious));
+		doneMoves++;
+		numberOfChanges = 0;
+	}
+	
+	boolean canUndo()
+	{
+		return doneMoves > 0;
+	}
+	
+	boolean canRedo()
+	{
+		return doneMoves < moves.size();
+	}
+	
+	//Takes the last done move off the history, or returns null if there isn't one
+	Move undo()
+	{
+		return doneMoves > 0 ? moves.get(--doneMoves) : null;
+	}
+	
+	//Returns the next undone move to the history, or returns null if there isn't one
+	Move redo()
+	{
+		return doneMoves < moves.size() ? moves.get(doneMoves++) : null;
+	}
+	
+	//Returns whether the next move to redo has to be redone along with the one before it
+	boolean nextRedoJoinsPrevious()
+	{
+		return doneMoves < moves.size() && moves.get(doneMoves).joinsPrevious;
+	}
+}
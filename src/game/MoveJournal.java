@@ -0,0 +1,255 @@
+/**
+ * MoveJournal - Appends every reset, reveal, chord and flag on a board to a compact binary file
+ * 
+ * The file starts with a header (magic number, version and the time the journal was started in
+ * milliseconds since the epoch) followed by one record per move:
+ *   byte   move type
+ *   ...    the move's values as unsigned varints (seeds and mine bitmaps are written as raw 8 byte longs)
+ *   varint milliseconds since the previous move
+ * 
+ * Moves are gathered in memory and handed to a background thread to be written in large blocks,
+ * so recording a move never waits for the disk.
+ * 
+ * @author Dylan Weber
+ * @version 6/3/2018
+ */
+package game;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import game.MinesweeperBoard.FirstRevealMode;
+import game.Tile.FlagState;
+
+public class MoveJournal implements AutoCloseable
+{
+	public static final int MAGIC_NUMBER = 0x4D534A4E;
+	//Version 2 added chords, version 3 added undo and redo and version 4 added loaded boards.
+	//Journals of any earlier version can still be replayed.
+	public static final int VERSION = 4;
+	public static final int HEADER_SIZE = 16;
+	
+	//Values: rows, columns, mines, seed, settings (bit 0 parallel generation, the rest the first reveal mode)
+	public static final byte RESET = 1;
+	//Values: row, column
+	public static final byte REVEAL = 2;
+	//Values: row, column, flag state
+	public static final byte FLAG = 3;
+	//Values: row, column
+	public static final byte CHORD = 4;
+	//No values
+	public static final byte UNDO = 5;
+	//No values
+	public static final byte REDO = 6;
+	//Values: as RESET, followed by the mine bitmap in the layout of BoardFile, (rows * columns + 63) / 64 longs
+	public static final byte LOAD = 7;
+	
+	//Moves are handed to the writing thread once this many bytes have been gathered
+	private static final int BLOCK_SIZE = 1 << 15;
+	
+	private FileChannel channel;
+	private ExecutorService writer;
+	private byte[] block;
+	private int blockSize;
+	private long lastMoveTime;
+	private volatile IOException writeError;
+	
+	public MoveJournal(Path path) throws IOException
+	{
+		channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+		writer = Executors.newSingleThreadExecutor(new ThreadFactory()
+		{
+			@Override
+			public Thread newThread(Runnable runnable)
+			{
+				Thread thread = new Thread(runnable, "Move journal writer");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		block = new byte[BLOCK_SIZE + 64];
+		lastMoveTime = System.currentTimeMillis();
+		
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		header.putInt(MAGIC_NUMBER).putInt(VERSION).putLong(lastMoveTime);
+		append(header.array(), HEADER_SIZE);
+	}
+	
+	public synchronized void recordReset(int rows, int columns, int numberOfMines, long seed, boolean parallelGeneration, FirstRevealMode firstRevealMode)
+	{
+		writeByte(RESET);
+		writeVarint(rows);
+		writeVarint(columns);
+		writeVarint(numberOfMines);
+		writeLong(seed);
+		writeVarint((firstRevealMode.ordinal() << 1) | (parallelGeneration ? 1 : 0));
+		endMove();
+	}
+	
+	/**
+	 * Records a board whose mines were loaded instead of generated. The mines can't be generated again from
+	 * the seed, since the board may have been saved after its first reveal moved them, so they are all written.
+	 */
+	public synchronized void recordLoad(int rows, int columns, int numberOfMines, long seed, boolean parallelGeneration, FirstRevealMode firstRevealMode, LongBuffer mineBitmap)
+	{
+		writeByte(LOAD);
+		writeVarint(rows);
+		writeVarint(columns);
+		writeVarint(numberOfMines);
+		writeLong(seed);
+		writeVarint((firstRevealMode.ordinal() << 1) | (parallelGeneration ? 1 : 0));
+		
+		int words = (int) (((long) rows * columns + 63) / 64);
+		for(int word = 0; word < words; word++)
+		{
+			//Large bitmaps are handed to the writing thread a block at a time
+			if(blockSize >= BLOCK_SIZE)
+			{
+				flush();
+			}
+			writeLong(mineBitmap.get(word));
+		}
+		endMove();
+	}
+	
+	public synchronized void recordReveal(int row, int column)
+	{
+		writeByte(REVEAL);
+		writeVarint(row);
+		writeVarint(column);
+		endMove();
+	}
+	
+	public synchronized void recordChord(int row, int column)
+	{
+		writeByte(CHORD);
+		writeVarint(row);
+		writeVarint(column);
+		endMove();
+	}
+	
+	public synchronized void recordFlag(int row, int column, FlagState flagState)
+	{
+		writeByte(FLAG);
+		writeVarint(row);
+		writeVarint(column);
+		writeVarint(flagState.ordinal());
+		endMove();
+	}
+	
+	public synchronized void recordUndo()
+	{
+		writeByte(UNDO);
+		endMove();
+	}
+	
+	public synchronized void recordRedo()
+	{
+		writeByte(REDO);
+		endMove();
+	}
+	
+	private void writeByte(byte value)
+	{
+		block[blockSize++] = value;
+	}
+	
+	//Writes the eight bytes of a long, highest byte first
+	private void writeLong(long value)
+	{
+		for(int shift = 56; shift >= 0; shift -= 8)
+		{
+			writeByte((byte) (value >>> shift));
+		}
+	}
+	
+	//Writes seven bits per byte, lowest bits first, with the top bit set on every byte but the last
+	private void writeVarint(int value)
+	{
+		while((value & ~0x7F) != 0)
+		{
+			block[blockSize++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		block[blockSize++] = (byte) value;
+	}
+	
+	private void endMove()
+	{
+		long now = System.currentTimeMillis();
+		writeVarint((int) Math.min(Math.max(now - lastMoveTime, 0), Integer.MAX_VALUE));
+		lastMoveTime = now;
+		
+		if(blockSize >= BLOCK_SIZE)
+		{
+			flush();
+		}
+	}
+	
+	private void append(byte[] bytes, int length)
+	{
+		System.arraycopy(bytes, 0, block, blockSize, length);
+		blockSize += length;
+	}
+	
+	//Hands everything recorded so far to the writing thread without waiting for it to be written
+	public synchronized void flush()
+	{
+		if(blockSize == 0 || writer.isShutdown())
+		{
+			return;
+		}
+		
+		final ByteBuffer buffer = ByteBuffer.wrap(Arrays.copyOf(block, blockSize));
+		blockSize = 0;
+		writer.execute(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				try
+				{
+					while(buffer.hasRemaining())
+					{
+						channel.write(buffer);
+					}
+				}
+				catch(IOException e)
+				{
+					writeError = e;
+				}
+			}
+		});
+	}
+	
+	//Writes everything that is left and closes the file, waiting for the writing thread to finish
+	@Override
+	public void close() throws IOException
+	{
+		flush();
+		writer.shutdown();
+		try
+		{
+			writer.awaitTermination(10, TimeUnit.SECONDS);
+		}
+		catch(InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+		channel.close();
+		
+		if(writeError != null)
+		{
+			throw writeError;
+		}
+	}
+}
@@ -0,0 +1,197 @@
+/**
+ * NoGuessGenerator - Finds mine layouts that can be solved from the first reveal without guessing
+ * 
+ * Candidate layouts keep the first revealed tile and the tiles around it free and place the mines
+ * at random everywhere else. Each one is played by BoardSolver, and the first candidate in order that
+ * it can finish is used. Candidates are tried in batches on the common fork-join pool, but a candidate
+ * only depends on its number, so the same seed always gives the same board on any machine.
+ * 
+ * The search is bounded by the work the solver does rather than by time. A candidate is only used if
+ * the candidates before it looked at fewer tiles in total than the budget, which is the same however
+ * the candidates were split into batches. When the budget runs out the caller falls back to an ordinary
+ * safe opening.
+ * 
+ * @author Dylan Weber
+ * @version 6/3/2018
+ */
+package game;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+final class NoGuessGenerator
+{
+	//Boards with more tiles than this aren't searched at all, since they are almost never free of guesses
+	static final int MAX_TILES = 1 << 18;
+	//How many tiles may be generated and looked at by the solver in total before giving up. Expert boards get
+	//thousands of tries, while large boards give up after a few.
+	private static final long WORK_BUDGET = 1L << 25;
+	//The most candidates tried on any board. Boards dense enough to need more are rarely solvable at all.
+	private static final int MAX_CANDIDATES = 1 << 13;
+	//Candidates tried at once per thread of the pool
+	private static final int CANDIDATES_PER_THREAD = 4;
+	//The most tiles of candidates kept at once, since each candidate and its solver take about sixteen bytes per tile
+	private static final int TILES_PER_BATCH = 1 << 22;
+	
+	private NoGuessGenerator() { }
+	
+	/**
+	 * Finds the mines and counts of a board that can be solved without guessing by revealing the tile at
+	 * (row, column) first. Nothing but its arguments is read, so it can run on any thread.
+	 * @return - The cells of the board, with only their mine and count bits set, or null if none was found
+	 */
+	static byte[] generate(int rows, int columns, int numberOfMines, int row, int column, long seed)
+	{
+		int tiles = rows * columns;
+		int firstRow = Math.max(row - 1, 0), lastRow = Math.min(row + 1, rows - 1);
+		int firstColumn = Math.max(column - 1, 0), lastColumn = Math.min(column + 1, columns - 1);
+		if(tiles > MAX_TILES || numberOfMines > tiles - (lastRow - firstRow + 1) * (lastColumn - firstColumn + 1))
+		{
+			return null;
+		}
+		
+		int[] allowedTiles = new int[tiles - (lastRow - firstRow + 1) * (lastColumn - firstColumn + 1)];
+		int size = 0;
+		for(int index = 0; index < tiles; index++)
+		{
+			int i = index / columns, j = index % columns;
+			if(i < firstRow || i > lastRow || j < firstColumn || j > lastColumn)
+			{
+				allowedTiles[size++] = index;
+			}
+		}
+		
+		int batchSize = Math.min(ForkJoinPool.getCommonPoolParallelism() * CANDIDATES_PER_THREAD, Math.max(TILES_PER_BATCH / tiles, 1));
+		Search search = new Search(rows, columns, numberOfMines, row * columns + column, allowedTiles, seed);
+		//The work of every candidate before first
+		long workBefore = 0;
+		for(int first = 0; first < MAX_CANDIDATES; )
+		{
+			//Every candidate costs at least four times its tiles, so a batch is never much bigger than the budget left
+			long affordable = Math.max((WORK_BUDGET - workBefore) / (4L * tiles), 1);
+			int last = (int) Math.min(first + Math.min(batchSize, affordable), MAX_CANDIDATES);
+			if(last - first > 1)
+			{
+				ForkJoinPool.commonPool().invoke(new CandidateTask(search, first, last));
+			}
+			else
+			{
+				search.tryCandidate(first);
+			}
+			
+			int found = search.firstSolvable.get();
+			for(int candidate = first; candidate < Math.min(found, last); candidate++)
+			{
+				workBefore += search.workOf[candidate];
+			}
+			if(workBefore > WORK_BUDGET)
+			{
+				return null;
+			}
+			if(found != Integer.MAX_VALUE)
+			{
+				//Only the number of the winning candidate is kept, so its board is generated again here
+				return search.createCandidate(found);
+			}
+			first = last;
+		}
+		return null;
+	}
+	
+	//What every candidate of one search shares
+	private static class Search
+	{
+		private final int rows, columns, numberOfMines, start;
+		private final int[] allowedTiles;
+		private final long seed;
+		//The lowest numbered candidate that could be solved so far
+		private final AtomicInteger firstSolvable = new AtomicInteger(Integer.MAX_VALUE);
+		//How many tiles each candidate took to generate and solve. Each one is written by the thread that tried it
+		//and read after the batch is joined.
+		private final long[] workOf = new long[MAX_CANDIDATES];
+		
+		Search(int rows, int columns, int numberOfMines, int start, int[] allowedTiles, long seed)
+		{
+			this.rows = rows;
+			this.columns = columns;
+			this.numberOfMines = numberOfMines;
+			this.start = start;
+			this.allowedTiles = allowedTiles;
+			this.seed = seed;
+		}
+		
+		//Places the mines of a candidate with a partial shuffle of the allowed tiles and counts the surrounding mines
+		byte[] createCandidate(int candidate)
+		{
+			//Neighbouring seeds give overlapping streams, so each candidate's seed is scrambled first
+			SplittableRandom mineChooser = new SplittableRandom(new SplittableRandom(seed + candidate).nextLong());
+			int[] tiles = allowedTiles.clone();
+			byte[] cells = new byte[rows * columns];
+			for(int mine = 0; mine < numberOfMines; mine++)
+			{
+				int chosen = mine + mineChooser.nextInt(tiles.length - mine);
+				int index = tiles[chosen];
+				tiles[chosen] = tiles[mine];
+				tiles[mine] = index;
+				cells[index] = (byte) Cells.MINE;
+			}
+			BoardGenerator.countSurroundingMines(cells, rows, columns, 0, rows);
+			return cells;
+		}
+		
+		void tryCandidate(int candidate)
+		{
+			//A lower numbered candidate has already won, so this one can't
+			if(candidate > firstSolvable.get())
+			{
+				return;
+			}
+			
+			byte[] cells = createCandidate(candidate);
+			BoardSolver solver = new BoardSolver(cells, rows, columns, numberOfMines, WORK_BUDGET);
+			boolean solvable = solver.solve(start);
+			//Generating a candidate takes about as long as the solver takes to look at four tiles for each of its tiles
+			workOf[candidate] = 4L * cells.length + solver.getWork();
+			if(solvable)
+			{
+				int current = firstSolvable.get();
+				while(candidate < current && !firstSolvable.compareAndSet(current, candidate))
+				{
+					current = firstSolvable.get();
+				}
+			}
+		}
+	}
+	
+	//Splits a range of candidates in half until a single candidate is left, then tries it
+	private static class CandidateTask extends RecursiveAction
+	{
+		private static final long serialVersionUID = 1L;
+		
+		private final Search search;
+		private final int first, last;
+		
+		CandidateTask(Search search, int first, int last)
+		{
+			this.search = search;
+			this.first = first;
+			this.last = last;
+		}
+		
+		@Override
+		protected void compute()
+		{
+			if(last - first > 1)
+			{
+				int middle = (first + last) >>> 1;
+				invokeAll(new CandidateTask(search, first, middle), new CandidateTask(search, middle, last));
+			}
+			else
+			{
+				search.tryCandidate(first);
+			}
+		}
+	}
+}
@@ -0,0 +1,205 @@
+/**
+ * ParallelFloodFill - Opens huge empty regions of a board on every processor
+ * 
+ * The opening grows one level at a time. Each level's frontier is split into chunks that are
+ * expanded on the common fork-join pool, and a tile is only opened by the thread that wins the
+ * race to claim it in a shared bitmap, so every tile is opened exactly once. The opened tiles are
+ * the same as the serial flood fill's; only the order they are listed in can differ.
+ * 
+ * @author Dylan Weber
+ * @version 6/3/2018
+ */
+package game;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import game.Tile.FlagState;
+
+final class ParallelFloodFill
+{
+	//Smaller frontiers are expanded faster on one thread than it takes to hand out the work
+	static final int PARALLEL_FRONTIER_THRESHOLD = 1 << 12;
+	//How many frontier tiles each task expands
+	private static final int CHUNK_SIZE = 1 << 11;
+	
+	private ParallelFloodFill() { }
+	
+	//Returns whether a frontier is big enough, and there are enough processors, for filling in parallel to be faster
+	static boolean isWorthwhile(int frontierSize)
+	{
+		return frontierSize >= PARALLEL_FRONTIER_THRESHOLD && ForkJoinPool.getCommonPoolParallelism() > 1;
+	}
+	
+	/**
+	 * Opens the region reachable from the tiles in openedTiles from position from onwards, which must all
+	 * be opened tiles that aren't mines and are the same number of steps from where the opening started.
+	 * The newly opened tiles are added to openedTiles, but not counted or reported to the board's listener.
+	 * When history isn't null, what each tile was before it was opened is recorded in it.
+	 * @return - The number of steps the opening grew by
+	 */
+	static int fill(byte[] cells, int rows, int columns, TileList openedTiles, int from, MoveHistory history)
+	{
+		//Tiles opened before the parallel part started are already revealed, so they don't need to be claimed
+		AtomicLongArray claimed = new AtomicLongArray((cells.length + 63) >>> 6);
+		int[] frontier = openedTiles.copyIndices(from, openedTiles.size());
+		int levels = 0;
+		
+		while(true)
+		{
+			int chunks = (frontier.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+			int[][] opened = new int[chunks][];
+			byte[][] openedBefore = history != null ? new byte[chunks][] : null;
+			int[] openedCounts = new int[chunks];
+			ForkJoinPool.commonPool().invoke(new LevelTask(cells, rows, columns, claimed, frontier, opened, openedBefore, openedCounts, 0, chunks));
+			
+			int total = 0;
+			for(int chunk = 0; chunk < chunks; chunk++)
+			{
+				total += openedCounts[chunk];
+			}
+			if(total == 0)
+			{
+				return levels;
+			}
+			
+			//The next frontier is every tile opened by this level
+			int[] nextFrontier = new int[total];
+			int position = 0;
+			for(int chunk = 0; chunk < chunks; chunk++)
+			{
+				System.arraycopy(opened[chunk], 0, nextFrontier, position, openedCounts[chunk]);
+				position += openedCounts[chunk];
+				if(history != null)
+				{
+					history.recordChanges(opened[chunk], openedBefore[chunk], openedCounts[chunk]);
+				}
+			}
+			openedTiles.addIndices(nextFrontier, total);
+			frontier = nextFrontier;
+			levels++;
+		}
+	}
+	
+	//Splits a range of chunks of the frontier in half until a single chunk is left, then expands it
+	private static class LevelTask extends RecursiveAction
+	{
+		private static final long serialVersionUID = 1L;
+		
+		private final byte[] cells;
+		private final int rows, columns;
+		private final AtomicLongArray claimed;
+		private final int[] frontier;
+		private final int[][] opened;
+		//What each opened tile was before it was opened, or null when that isn't needed
+		private final byte[][] openedBefore;
+		private final int[] openedCounts;
+		private final int firstChunk, lastChunk;
+		
+		LevelTask(byte[] cells, int rows, int columns, AtomicLongArray claimed, int[] frontier, int[][] opened, byte[][] openedBefore, int[] openedCounts, int firstChunk, int lastChunk)
+		{
+			this.cells = cells;
+			this.rows = rows;
+			this.columns = columns;
+			this.claimed = claimed;
+			this.frontier = frontier;
+			this.opened = opened;
+			this.openedBefore = openedBefore;
+			this.openedCounts = openedCounts;
+			this.firstChunk = firstChunk;
+			this.lastChunk = lastChunk;
+		}
+		
+		@Override
+		protected void compute()
+		{
+			if(lastChunk - firstChunk > 1)
+			{
+				int middle = (firstChunk + lastChunk) >>> 1;
+				invokeAll(new LevelTask(cells, rows, columns, claimed, frontier, opened, openedBefore, openedCounts, firstChunk, middle),
+						new LevelTask(cells, rows, columns, claimed, frontier, opened, openedBefore, openedCounts, middle, lastChunk));
+			}
+			else
+			{
+				expandChunk(firstChunk);
+			}
+		}
+		
+		//Opens the unopened tiles around each empty tile in the chunk and records them as the chunk's part of the next level
+		private void expandChunk(int chunk)
+		{
+			int start = chunk * CHUNK_SIZE, end = Math.min(start + CHUNK_SIZE, frontier.length);
+			int[] chunkOpened = new int[2 * (end - start) + 8];
+			byte[] chunkBefore = openedBefore != null ? new byte[chunkOpened.length] : null;
+			int count = 0;
+			
+			for(int position = start; position < end; position++)
+			{
+				int index = frontier[position];
+				if(Cells.numberOfSurroundingMines(cells[index]) != 0)
+				{
+					continue;
+				}
+				
+				int row = index / columns, column = index % columns;
+				int firstRow = Math.max(row - 1, 0), lastRow = Math.min(row + 1, rows - 1);
+				int firstColumn = Math.max(column - 1, 0), lastColumn = Math.min(column + 1, columns - 1);
+				
+				for(int i = firstRow; i <= lastRow; i++)
+				{
+					for(int j = firstColumn; j <= lastColumn; j++)
+					{
+						int surroundingIndex = i * columns + j;
+						//Only the thread that claims a tile writes to it, so reading a stale value here just means losing the claim
+						if(!Cells.isRevealed(cells[surroundingIndex]) && claim(surroundingIndex))
+						{
+							byte cell = cells[surroundingIndex];
+							cells[surroundingIndex] = Cells.withFlagState(Cells.withRevealed(cell, true), FlagState.NONE);
+							if(count == chunkOpened.length)
+							{
+								chunkOpened = Arrays.copyOf(chunkOpened, count * 2);
+								if(chunkBefore != null)
+								{
+									chunkBefore = Arrays.copyOf(chunkBefore, count * 2);
+								}
+							}
+							if(chunkBefore != null)
+							{
+								chunkBefore[count] = cell;
+							}
+							chunkOpened[count++] = surroundingIndex;
+						}
+					}
+				}
+			}
+			
+			opened[chunk] = chunkOpened;
+			if(openedBefore != null)
+			{
+				openedBefore[chunk] = chunkBefore;
+			}
+			openedCounts[chunk] = count;
+		}
+		
+		//Sets the tile's bit in the claim bitmap, returning false if another thread set it first
+		private boolean claim(int index)
+		{
+			int word = index >>> 6;
+			long bit = 1L << index;
+			while(true)
+			{
+				long bits = claimed.get(word);
+				if((bits & bit) != 0)
+				{
+					return false;
+				}
+				if(claimed.compareAndSet(word, bits, bits | bit))
+				{
+					return true;
+				}
+			}
+		}
+	}
+}
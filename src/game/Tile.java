@@ -1,114 +1,109 @@
-/**
- * Tile - Handles the data used in a Minesweeper tile
- * 
- * @author Dylan Weber
- * @version 6/3/2018
- */
-package game;
-
-import graphics.TileGraphics;
-
-public class Tile
-{
-	private boolean isRevealed;
-	private boolean isMine;
-	private int numberOfSurroundingMines;
-	private int row;
-	private int column;
-	private TileGraphics graphics;
-	private MinesweeperBoard parentBoard;
-	
-	//The image shown on top of the tile
-	public enum FlagState
-	{
-		NONE, FLAG, QUESTION_MARK, FALSE_FLAG;
-	}
-	
-	private FlagState flagState;
-	
-	public Tile(MinesweeperBoard parentBoard, int row, int column)
-	{
-		this.row = row;
-		this.column = column;
-
-		this.isRevealed = false;
-		this.isMine = false;
-		this.numberOfSurroundingMines = 0;
-		this.flagState = FlagState.NONE;
-		
-		this.parentBoard = parentBoard;
-		this.graphics = new TileGraphics(this);
-	}
-	
-	public void resetTile()
-	{
-		setRevealed(false);
-		setMine(false);
-		setNumberOfSurroundingMines(0);
-		setFlagState(FlagState.NONE);
-	}
-	
-	public boolean isRevealed()
-	{
-		return isRevealed;
-	}
-	
-	public void setRevealed(boolean isRevealed)
-	{
-		this.isRevealed = isRevealed;
-		graphics.updateGraphics();
-	}
-	
-	public boolean isMine()
-	{
-		return isMine;
-	}
-	
-	public void setMine(boolean isMine)
-	{
-		this.isMine = isMine;
-		graphics.updateGraphics();
-	}
-
-	public int getNumberOfSurroundingMines()
-	{
-		return numberOfSurroundingMines;
-	}
-
-	public void setNumberOfSurroundingMines(int numberOfSurroundingMines)
-	{
-		this.numberOfSurroundingMines = numberOfSurroundingMines;
-		graphics.updateGraphics();
-	}
-	
-	public TileGraphics getGraphics()
-	{
-		return graphics;
-	}
-
-	public int getRow()
-	{
-		return row;
-	}
-
-	public int getColumn()
-	{
-		return column;
-	}
-
-	public MinesweeperBoard getParentBoard()
-	{
-		return parentBoard;
-	}
-
-	public FlagState getFlagState()
-	{
-		return flagState;
-	}
-
-	public void setFlagState(FlagState flagState)
-	{
-		this.flagState = flagState;
-		graphics.updateGraphics();
-	}
-}
+/**
+ * Tile - Handles the data used in a Minesweeper tile
+ * 
+ * The state of every tile is packed into a byte array owned by its board. A Tile is only a
+ * lightweight view of one of those bytes and is created whenever it is asked for.
+ * 
+ * @author Dylan Weber
+ * @version 6/3/2018
+ */
+package game;
+
+public class Tile
+{
+	private int row;
+	private int column;
+	private MinesweeperBoard parentBoard;
+	
+	//The image shown on top of the tile
+	public enum FlagState
+	{
+		NONE, FLAG, QUESTION_MARK, FALSE_FLAG;
+	}
+	
+	public Tile(MinesweeperBoard parentBoard, int row, int column)
+	{
+		this.row = row;
+		this.column = column;
+		this.parentBoard = parentBoard;
+	}
+	
+	public void resetTile()
+	{
+		parentBoard.setCell(row, column, (byte) 0);
+	}
+	
+	public boolean isRevealed()
+	{
+		return Cells.isRevealed(parentBoard.getCell(row, column));
+	}
+	
+	public void setRevealed(boolean isRevealed)
+	{
+		parentBoard.setCell(row, column, Cells.withRevealed(parentBoard.getCell(row, column), isRevealed));
+	}
+	
+	public boolean isMine()
+	{
+		return Cells.isMine(parentBoard.getCell(row, column));
+	}
+	
+	public void setMine(boolean isMine)
+	{
+		parentBoard.setCell(row, column, Cells.withMine(parentBoard.getCell(row, column), isMine));
+	}
+
+	public int getNumberOfSurroundingMines()
+	{
+		return Cells.numberOfSurroundingMines(parentBoard.getCell(row, column));
+	}
+
+	public void setNumberOfSurroundingMines(int numberOfSurroundingMines)
+	{
+		parentBoard.setCell(row, column, Cells.withNumberOfSurroundingMines(parentBoard.getCell(row, column), numberOfSurroundingMines));
+	}
+
+	public int getRow()
+	{
+		return row;
+	}
+
+	public int getColumn()
+	{
+		return column;
+	}
+
+	public MinesweeperBoard getParentBoard()
+	{
+		return parentBoard;
+	}
+
+	public FlagState getFlagState()
+	{
+		return Cells.flagState(parentBoard.getCell(row, column));
+	}
+
+	public void setFlagState(FlagState flagState)
+	{
+		parentBoard.flagTile(row, column, flagState);
+	}
+	
+	//Two views are equal when they look at the same position on the same board
+	@Override
+	public boolean equals(Object other)
+	{
+		if(!(other instanceof Tile))
+		{
+			return false;
+		}
+		
+		Tile otherTile = (Tile) other;
+		return parentBoard == otherTile.parentBoard && row == otherTile.row && column == otherTile.column;
+	}
+	
+	@Override
+	public int hashCode()
+	{
+		return 31 * (31 * System.identityHashCode(parentBoard) + row) + column;
+	}
+}
@@ -0,0 +1,75 @@
+/**
+ * TileList - A list of tiles stored as their positions on the board
+ * 
+ * Reveals can open millions of tiles, so only the index of each tile is kept
+ * and a Tile view is created when an element is asked for.
+ * 
+ * @author Dylan Weber
+ * @version 6/3/2018
+ */
+package game;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+
+class TileList extends AbstractList<Tile>
+{
+	private MinesweeperBoard board;
+	private int[] indices;
+	private int size;
+	
+	TileList(MinesweeperBoard board)
+	{
+		this.board = board;
+		this.indices = new int[16];
+	}
+	
+	void addIndex(int index)
+	{
+		if(size == indices.length)
+		{
+			indices = Arrays.copyOf(indices, size * 2);
+		}
+		indices[size++] = index;
+	}
+	
+	//Adds the first count indices of the array
+	void addIndices(int[] newIndices, int count)
+	{
+		if(size + count > indices.length)
+		{
+			indices = Arrays.copyOf(indices, Math.max(indices.length * 2, size + count));
+		}
+		System.arraycopy(newIndices, 0, indices, size, count);
+		size += count;
+	}
+	
+	//Returns the indices from position from (inclusive) to position to (exclusive)
+	int[] copyIndices(int from, int to)
+	{
+		return Arrays.copyOfRange(indices, from, to);
+	}
+	
+	int getIndex(int position)
+	{
+		return indices[position];
+	}
+	
+	@Override
+	public Tile get(int position)
+	{
+		if(position < 0 || position >= size)
+		{
+			throw new IndexOutOfBoundsException("Position: " + position + ", Size: " + size);
+		}
+		
+		int index = indices[position];
+		return new Tile(board, index / board.numberOfColumns(), index % board.numberOfColumns());
+	}
+	
+	@Override
+	public int size()
+	{
+		return size;
+	}
+}
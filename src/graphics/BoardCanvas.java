@@ -0,0 +1,422 @@
+/**
+ * BoardCanvas - Draws a whole board on a single canvas that only covers the visible part of the board
+ * 
+ * The board can be zoomed with control and the scroll wheel. Zoomed out far enough that sprites would be
+ * unreadable, every visible pixel is written straight to the canvas in the colour of the tile under it.
+ * 
+ * @author Dylan Weber
+ * @version 6/3/2018
+ */
+package graphics;
+
+import java.util.Arrays;
+
+import controllers.UIManager;
+import game.MinesweeperBoard;
+import game.Tile;
+import javafx.beans.InvalidationListener;
+import javafx.beans.Observable;
+import javafx.event.EventHandler;
+import javafx.geometry.BoundingBox;
+import javafx.geometry.Bounds;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.layout.Region;
+
+public class BoardCanvas extends Region
+{
+	//The distance between the top left corners of two neighbouring tiles, matching the GridPane layout
+	public static final double TILE_SIZE = TileGraphics.TILE_SIDE_LENGTH + TileGraphics.TILE_BORDER_WIDTH;
+	
+	//Each zoom level is a quarter of a doubling. Level 0 draws tiles at TILE_SIZE.
+	public static final int MIN_ZOOM_LEVEL = -28;
+	public static final int MAX_ZOOM_LEVEL = 4;
+	//Tiles smaller than this many pixels are drawn as a bitmap with a single colour per tile instead of with sprites
+	public static final double DETAIL_TILE_SIZE = 12;
+	//Tiles at least this many pixels wide get a border in the bitmap
+	private static final double BITMAP_BORDER_TILE_SIZE = 4;
+	
+	//The colour of each sprite in the bitmap, as premultiplied ARGB
+	private static final int[] SPRITE_COLORS = new int[TileSprites.NUMBER_OF_SPRITES];
+	private static final int BORDER_COLOR = 0xFFA9A9A9;
+	static
+	{
+		SPRITE_COLORS[TileSprites.HIDDEN] = 0xFF808080;
+		SPRITE_COLORS[TileSprites.FLAG] = 0xFFFF8C00;
+		SPRITE_COLORS[TileSprites.QUESTION_MARK] = 0xFFDAA520;
+		SPRITE_COLORS[TileSprites.EMPTY] = 0xFFFFFFFF;
+		for(int number = 1; number <= 8; number++)
+		{
+			//Numbers are a little darker than empty tiles so that the edges of openings show
+			SPRITE_COLORS[TileSprites.EMPTY + number] = 0xFFDCDCDC;
+		}
+		SPRITE_COLORS[TileSprites.LOST_MINE] = 0xFFFF0000;
+		SPRITE_COLORS[TileSprites.WON_MINE] = 0xFF32CD32;
+		SPRITE_COLORS[TileSprites.FALSE_FLAG] = 0xFF8B0000;
+	}
+	
+	private UIManager controller;
+	private ScrollPane scrollPane;
+	private Canvas canvas;
+	private MinesweeperBoard board;
+	private TileSprites sprites;
+	private int zoomLevel;
+	private double tileSize = TILE_SIZE;
+	
+	//The tiles currently covered by the canvas. The last row and column are exclusive.
+	private int firstRow, firstColumn, lastRow, lastColumn;
+	//While drawing a bitmap: where the canvas is on the board in pixels, and the pixels of the canvas
+	private int canvasX, canvasY;
+	private int[] pixels;
+	
+	public BoardCanvas(UIManager controller, ScrollPane scrollPane)
+	{
+		this.controller = controller;
+		this.scrollPane = scrollPane;
+		
+		canvas = new Canvas();
+		getChildren().add(canvas);
+		
+		//Scrolling or resizing the window changes which tiles are visible
+		InvalidationListener viewportListener = new InvalidationListener()
+		{
+			@Override
+			public void invalidated(Observable observable)
+			{
+				requestLayout();
+			}
+		};
+		scrollPane.hvalueProperty().addListener(viewportListener);
+		scrollPane.vvalueProperty().addListener(viewportListener);
+		scrollPane.viewportBoundsProperty().addListener(viewportListener);
+		
+		addMouseFunctions();
+	}
+	
+	//Finds the clicked tile from the position of the mouse instead of using a node per tile, and zooms on control and scroll
+	private void addMouseFunctions()
+	{
+		this.addEventHandler(MouseEvent.MOUSE_CLICKED, new EventHandler<MouseEvent>()
+		{
+			@Override
+			public void handle(MouseEvent event)
+			{
+				if(board != null)
+				{
+					Tile tile = board.getTile((int) Math.floor(event.getY() / tileSize), (int) Math.floor(event.getX() / tileSize));
+					if(tile != null)
+					{
+						controller.handleTileClick(tile, controller.clickedButton(event));
+					}
+				}
+			}
+		});
+		
+		this.addEventFilter(ScrollEvent.SCROLL, new EventHandler<ScrollEvent>()
+		{
+			@Override
+			public void handle(ScrollEvent event)
+			{
+				if(event.isShortcutDown() && event.getDeltaY() != 0)
+				{
+					setZoomLevel(zoomLevel + (event.getDeltaY() > 0 ? 1 : -1), event.getX(), event.getY());
+					event.consume();
+				}
+			}
+		});
+	}
+	
+	public void setBoard(MinesweeperBoard board)
+	{
+		this.board = board;
+		requestLayout();
+		redrawAll();
+	}
+	
+	public int getZoomLevel()
+	{
+		return zoomLevel;
+	}
+	
+	//Returns the width and height of a tile in pixels at the current zoom
+	public double getTileSize()
+	{
+		return tileSize;
+	}
+	
+	/**
+	 * Zooms in or out, keeping the point (pivotX, pivotY) of the board in the same place on the screen.
+	 * @param zoomLevel - The new zoom level, which is kept between MIN_ZOOM_LEVEL and MAX_ZOOM_LEVEL
+	 * @param pivotX - The x position on the board to zoom around, in pixels at the current zoom
+	 * @param pivotY - The y position on the board to zoom around, in pixels at the current zoom
+	 */
+	public void setZoomLevel(int zoomLevel, double pivotX, double pivotY)
+	{
+		zoomLevel = Math.max(MIN_ZOOM_LEVEL, Math.min(zoomLevel, MAX_ZOOM_LEVEL));
+		if(zoomLevel == this.zoomLevel || board == null || getScene() == null)
+		{
+			return;
+		}
+		
+		Bounds visible = visibleBounds();
+		double pivotColumn = pivotX / tileSize, pivotRow = pivotY / tileSize;
+		double viewportX = pivotX - visible.getMinX(), viewportY = pivotY - visible.getMinY();
+		
+		this.zoomLevel = zoomLevel;
+		double zoomedSize = TILE_SIZE * Math.pow(2, zoomLevel / 4.0);
+		//Sprites are drawn at whole pixel sizes so that they stay sharp
+		tileSize = zoomedSize >= DETAIL_TILE_SIZE ? Math.round(zoomedSize) : zoomedSize;
+		
+		//Lays the scroll pane out at the new size so that the scroll bars cover the new range
+		requestLayout();
+		scrollPane.layout();
+		
+		Bounds viewport = scrollPane.getViewportBounds();
+		double scrollableWidth = computePrefWidth(-1) - viewport.getWidth();
+		double scrollableHeight = computePrefHeight(-1) - viewport.getHeight();
+		if(scrollableWidth > 0)
+		{
+			scrollPane.setHvalue(scrollPane.getHmax() * clamp((pivotColumn * tileSize - viewportX) / scrollableWidth, 0, 1));
+		}
+		if(scrollableHeight > 0)
+		{
+			scrollPane.setVvalue(scrollPane.getVmax() * clamp((pivotRow * tileSize - viewportY) / scrollableHeight, 0, 1));
+		}
+	}
+	
+	private boolean drawsBitmap()
+	{
+		return tileSize < DETAIL_TILE_SIZE;
+	}
+	
+	@Override
+	protected double computeMinWidth(double height)
+	{
+		return computePrefWidth(height);
+	}
+	
+	@Override
+	protected double computeMinHeight(double width)
+	{
+		return computePrefHeight(width);
+	}
+	
+	@Override
+	protected double computePrefWidth(double height)
+	{
+		return board == null ? 0 : Math.ceil(board.numberOfColumns() * tileSize);
+	}
+	
+	@Override
+	protected double computePrefHeight(double width)
+	{
+		return board == null ? 0 : Math.ceil(board.numberOfRows() * tileSize);
+	}
+	
+	@Override
+	protected double computeMaxWidth(double height)
+	{
+		return computePrefWidth(height);
+	}
+	
+	@Override
+	protected double computeMaxHeight(double width)
+	{
+		return computePrefHeight(width);
+	}
+	
+	//Returns the part of the board that can be seen through the scroll pane, in this region's coordinates
+	private Bounds visibleBounds()
+	{
+		//The viewport bounds of a scroll pane are offset by how far its content has been scrolled
+		Bounds viewport = scrollPane.getViewportBounds();
+		Bounds visibleContent = new BoundingBox(-viewport.getMinX(), -viewport.getMinY(), viewport.getWidth(), viewport.getHeight());
+		return sceneToLocal(scrollPane.getContent().localToScene(visibleContent));
+	}
+	
+	//Moves the canvas over the visible part of the board and redraws it
+	@Override
+	protected void layoutChildren()
+	{
+		if(board == null || scrollPane.getContent() == null || getScene() == null)
+		{
+			return;
+		}
+		
+		Bounds visible = visibleBounds();
+		firstRow = clamp((int) Math.floor(visible.getMinY() / tileSize), board.numberOfRows());
+		firstColumn = clamp((int) Math.floor(visible.getMinX() / tileSize), board.numberOfColumns());
+		lastRow = clamp((int) Math.ceil(visible.getMaxY() / tileSize), board.numberOfRows());
+		lastColumn = clamp((int) Math.ceil(visible.getMaxX() / tileSize), board.numberOfColumns());
+		
+		if(drawsBitmap())
+		{
+			//The bitmap covers exactly the visible pixels, so a pixel may show part of a tile or one of several tiles
+			canvasX = (int) clamp(Math.floor(visible.getMinX()), 0, computePrefWidth(-1));
+			canvasY = (int) clamp(Math.floor(visible.getMinY()), 0, computePrefHeight(-1));
+			canvas.relocate(canvasX, canvasY);
+			canvas.setWidth(clamp(Math.ceil(visible.getMaxX()), 0, computePrefWidth(-1)) - canvasX);
+			canvas.setHeight(clamp(Math.ceil(visible.getMaxY()), 0, computePrefHeight(-1)) - canvasY);
+		}
+		else
+		{
+			canvas.relocate(firstColumn * tileSize, firstRow * tileSize);
+			canvas.setWidth((lastColumn - firstColumn) * tileSize);
+			canvas.setHeight((lastRow - firstRow) * tileSize);
+		}
+		
+		redrawAll();
+	}
+	
+	private static int clamp(int value, int max)
+	{
+		return Math.max(0, Math.min(value, max));
+	}
+	
+	private static double clamp(double value, double min, double max)
+	{
+		return Math.max(min, Math.min(value, max));
+	}
+	
+	//Redraws every tile that the canvas covers
+	public void redrawAll()
+	{
+		if(board == null)
+		{
+			return;
+		}
+		
+		if(drawsBitmap())
+		{
+			drawBitmap();
+			return;
+		}
+		
+		for(int i = firstRow; i < lastRow; i++)
+		{
+			for(int j = firstColumn; j < lastColumn; j++)
+			{
+				drawTile(i, j);
+			}
+		}
+	}
+	
+	//Redraws a single tile if it is visible
+	public void redrawTile(int row, int column)
+	{
+		if(board != null && row >= firstRow && row < lastRow && column >= firstColumn && column < lastColumn)
+		{
+			if(drawsBitmap())
+			{
+				drawBitmapTile(row, column);
+			}
+			else
+			{
+				drawTile(row, column);
+			}
+		}
+	}
+	
+	//Draws a tile by copying its sprite from the atlas
+	private void drawTile(int row, int column)
+	{
+		if(sprites == null || sprites.getTileSize() != tileSize)
+		{
+			sprites = TileSprites.forSize(tileSize);
+		}
+		sprites.draw(canvas.getGraphicsContext2D(), TileSprites.spriteOf(board.getTile(row, column)), (column - firstColumn) * tileSize, (row - firstRow) * tileSize);
+	}
+	
+	/**
+	 * Draws every visible pixel with the colour of the tile under it and writes them to the canvas at once.
+	 * Each tile's colour is only worked out once per row of pixels, and rows of pixels that show the same
+	 * tiles as the row above are copied, so the cost depends on the size of the window rather than the board.
+	 */
+	private void drawBitmap()
+	{
+		int width = (int) canvas.getWidth(), height = (int) canvas.getHeight();
+		if(width <= 0 || height <= 0)
+		{
+			return;
+		}
+		if(pixels == null || pixels.length < width * height)
+		{
+			pixels = new int[width * height];
+		}
+		
+		boolean borders = tileSize >= BITMAP_BORDER_TILE_SIZE;
+		int[] columnOfPixel = new int[width];
+		boolean[] columnBorder = new boolean[width];
+		for(int x = 0; x < width; x++)
+		{
+			columnOfPixel[x] = Math.min((int) ((canvasX + x) / tileSize), board.numberOfColumns() - 1);
+			columnBorder[x] = borders && (int) ((canvasX + x + 1) / tileSize) != columnOfPixel[x];
+		}
+		
+		int lastDrawnRow = -1;
+		for(int y = 0; y < height; y++)
+		{
+			int row = Math.min((int) ((canvasY + y) / tileSize), board.numberOfRows() - 1);
+			int rowStart = y * width;
+			
+			if(borders && (int) ((canvasY + y + 1) / tileSize) != row)
+			{
+				Arrays.fill(pixels, rowStart, rowStart + width, BORDER_COLOR);
+				continue;
+			}
+			if(row == lastDrawnRow)
+			{
+				System.arraycopy(pixels, rowStart - width, pixels, rowStart, width);
+				continue;
+			}
+			
+			int color = 0;
+			for(int x = 0; x < width; x++)
+			{
+				if(columnBorder[x])
+				{
+					pixels[rowStart + x] = BORDER_COLOR;
+					continue;
+				}
+				if(x == 0 || columnOfPixel[x] != columnOfPixel[x - 1] || columnBorder[x - 1])
+				{
+					color = SPRITE_COLORS[TileSprites.spriteOf(board.getTile(row, columnOfPixel[x]))];
+				}
+				pixels[rowStart + x] = color;
+			}
+			lastDrawnRow = row;
+		}
+		
+		canvas.getGraphicsContext2D().getPixelWriter().setPixels(0, 0, width, height, PixelFormat.getIntArgbPreInstance(), pixels, 0, width);
+	}
+	
+	//Recolours the pixels of one tile in the bitmap
+	private void drawBitmapTile(int row, int column)
+	{
+		int width = (int) canvas.getWidth(), height = (int) canvas.getHeight();
+		//The pixels whose left or top edge is inside the tile, and the ones just past its right and bottom edges,
+		//which may be off the canvas
+		int firstX = Math.max((int) Math.ceil(column * tileSize) - canvasX, 0);
+		int endX = (int) Math.ceil((column + 1) * tileSize) - canvasX;
+		int firstY = Math.max((int) Math.ceil(row * tileSize) - canvasY, 0);
+		int endY = (int) Math.ceil((row + 1) * tileSize) - canvasY;
+		//Only the part of the tile on the canvas is filled
+		int lastX = Math.min(endX, width), lastY = Math.min(endY, height);
+		
+		int color = SPRITE_COLORS[TileSprites.spriteOf(board.getTile(row, column))];
+		boolean borders = tileSize >= BITMAP_BORDER_TILE_SIZE;
+		PixelWriter writer = canvas.getGraphicsContext2D().getPixelWriter();
+		for(int y = firstY; y < lastY; y++)
+		{
+			for(int x = firstX; x < lastX; x++)
+			{
+				boolean border = borders && (x == endX - 1 || y == endY - 1);
+				writer.setArgb(x, y, border ? BORDER_COLOR : color);
+			}
+		}
+	}
+}
@@ -0,0 +1,231 @@
+/**
+ * TileSprites - Every way a tile can look, drawn once into a single image
+ * 
+ * Tiles are drawn by copying their sprite out of the atlas instead of laying out text and images
+ * for each tile, so the number font is only rendered when an atlas is drawn. There is one atlas per
+ * tile size and it has to be created on the JavaFX application thread.
+ * 
+ * @author Dylan Weber
+ * @version 6/3/2018
+ */
+package graphics;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import game.Tile;
+import game.Tile.FlagState;
+import javafx.beans.InvalidationListener;
+import javafx.beans.Observable;
+import javafx.geometry.Rectangle2D;
+import javafx.geometry.VPos;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.TextAlignment;
+
+public class TileSprites
+{
+	//The sprites, in the order they appear in the atlas. A revealed number n is sprite EMPTY + n.
+	public static final int HIDDEN = 0;
+	public static final int FLAG = 1;
+	public static final int QUESTION_MARK = 2;
+	public static final int EMPTY = 3;
+	public static final int LOST_MINE = 12;
+	public static final int WON_MINE = 13;
+	public static final int FALSE_FLAG = 14;
+	public static final int NUMBER_OF_SPRITES = 15;
+	
+	//The images are decoded in the background so that they don't hold up the first frame. A new board starts
+	//with only hidden tiles, so the atlases are usually redrawn with the images before any of them show.
+	private static final Image FLAG_IMAGE = loadImage("Flag.png");
+	private static final Image QUESTION_MARK_IMAGE = loadImage("Question Mark.png");
+	private static final Image MINE_IMAGE = loadImage("Mine.png");
+	private static final Image FALSE_FLAG_IMAGE = loadImage("False Flag.png");
+	
+	private static final double NUMBER_FONT_SIZE = 20;
+	
+	private static final Map<Double, TileSprites> ATLASES = new HashMap<>();
+	
+	private final double tileSize;
+	private final WritableImage atlas;
+	private final Rectangle2D[] viewports = new Rectangle2D[NUMBER_OF_SPRITES];
+	
+	//Returns the sprites for tiles of the given size, including their border, drawing them the first time
+	public static TileSprites forSize(double tileSize)
+	{
+		TileSprites sprites = ATLASES.get(tileSize);
+		if(sprites == null)
+		{
+			sprites = new TileSprites(tileSize);
+			ATLASES.put(tileSize, sprites);
+		}
+		return sprites;
+	}
+	
+	//Starts decoding an image in the background and redraws every atlas once it has loaded
+	private static Image loadImage(String url)
+	{
+		final Image image = new Image(url, true);
+		image.progressProperty().addListener(new InvalidationListener()
+		{
+			@Override
+			public void invalidated(Observable observable)
+			{
+				if(image.getProgress() >= 1)
+				{
+					image.progressProperty().removeListener(this);
+					for(TileSprites sprites : ATLASES.values())
+					{
+						sprites.drawAtlas();
+					}
+				}
+			}
+		});
+		return image;
+	}
+	
+	private TileSprites(double tileSize)
+	{
+		this.tileSize = tileSize;
+		atlas = new WritableImage((int) Math.ceil(tileSize * NUMBER_OF_SPRITES), (int) Math.ceil(tileSize));
+		for(int sprite = 0; sprite < NUMBER_OF_SPRITES; sprite++)
+		{
+			viewports[sprite] = new Rectangle2D(sprite * tileSize, 0, tileSize, tileSize);
+		}
+		drawAtlas();
+	}
+	
+	//Draws the sprites into the atlas. Image views showing the atlas pick up the change by themselves.
+	private void drawAtlas()
+	{
+		//The sprites are laid out in a single row
+		Canvas canvas = new Canvas(tileSize * NUMBER_OF_SPRITES, tileSize);
+		GraphicsContext graphics = canvas.getGraphicsContext2D();
+		for(int sprite = 0; sprite < NUMBER_OF_SPRITES; sprite++)
+		{
+			drawSprite(graphics, sprite, sprite * tileSize);
+		}
+		
+		SnapshotParameters parameters = new SnapshotParameters();
+		parameters.setFill(Color.TRANSPARENT);
+		canvas.snapshot(parameters, atlas);
+	}
+	
+	//Draws a tile the same way the old per-tile nodes displayed it: a grey border around a coloured square
+	private void drawSprite(GraphicsContext graphics, int sprite, double x)
+	{
+		//Sprites of other sizes are scaled from the size of a tile in the grid
+		double scale = tileSize / BoardCanvas.TILE_SIZE;
+		double border = TileGraphics.TILE_BORDER_WIDTH * scale;
+		double inside = tileSize - 2 * border;
+		
+		Color background;
+		Image image = null;
+		switch(sprite)
+		{
+			case HIDDEN:
+				background = Color.GRAY;
+				break;
+			case FLAG:
+				background = Color.GRAY;
+				image = FLAG_IMAGE;
+				break;
+			case QUESTION_MARK:
+				background = Color.GRAY;
+				image = QUESTION_MARK_IMAGE;
+				break;
+			case LOST_MINE:
+				background = Color.RED;
+				image = MINE_IMAGE;
+				break;
+			case WON_MINE:
+				background = Color.LIMEGREEN;
+				image = MINE_IMAGE;
+				break;
+			case FALSE_FLAG:
+				background = Color.WHITE;
+				image = FALSE_FLAG_IMAGE;
+				break;
+			default:
+				background = Color.WHITE;
+				break;
+		}
+		
+		graphics.setFill(Color.DARKGRAY);
+		graphics.fillRect(x, 0, tileSize, tileSize);
+		graphics.setFill(background);
+		graphics.fillRect(x + border, border, inside, inside);
+		
+		if(image != null)
+		{
+			graphics.drawImage(image, x + border, border, inside, inside);
+		}
+		else if(sprite > EMPTY)
+		{
+			int number = sprite - EMPTY;
+			graphics.setFont(Font.font("Trebuchet", FontWeight.NORMAL, NUMBER_FONT_SIZE * scale));
+			graphics.setTextAlign(TextAlignment.CENTER);
+			graphics.setTextBaseline(VPos.CENTER);
+			graphics.setFill(TileGraphics.getNumberColor(number));
+			graphics.fillText(String.valueOf(number), x + tileSize / 2, tileSize / 2);
+		}
+	}
+	
+	//Returns which sprite shows the current state of a tile
+	public static int spriteOf(Tile tile)
+	{
+		FlagState flagState = tile.getFlagState();
+		
+		//The flag will stay on the board after a game over
+		if(tile.isRevealed() && flagState != FlagState.FLAG)
+		{
+			if(tile.isMine())
+			{
+				return tile.getParentBoard().gameWon() ? WON_MINE : LOST_MINE;
+			}
+			if(flagState == FlagState.FALSE_FLAG)
+			{
+				return FALSE_FLAG;
+			}
+			return EMPTY + tile.getNumberOfSurroundingMines();
+		}
+		
+		switch(flagState)
+		{
+			case FLAG:
+				return FLAG;
+			case QUESTION_MARK:
+				return QUESTION_MARK;
+			default:
+				return HIDDEN;
+		}
+	}
+	
+	//Copies a sprite onto a canvas with its top left corner at (x, y)
+	public void draw(GraphicsContext graphics, int sprite, double x, double y)
+	{
+		graphics.drawImage(atlas, sprite * tileSize, 0, tileSize, tileSize, x, y, tileSize, tileSize);
+	}
+	
+	public WritableImage getAtlas()
+	{
+		return atlas;
+	}
+	
+	//Returns the part of the atlas that holds a sprite, for showing it in an ImageView
+	public Rectangle2D getViewport(int sprite)
+	{
+		return viewports[sprite];
+	}
+	
+	public double getTileSize()
+	{
+		return tileSize;
+	}
+}
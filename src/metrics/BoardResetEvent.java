@@ -0,0 +1,31 @@
+/**
+ * BoardResetEvent - Flight Recorder event for generating a new board
+ * 
+ * @author Dylan Weber
+ * @version 6/3/2018
+ */
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("minesweeper.BoardReset")
+@Label("Board Reset")
+@Category("Minesweeper")
+@Description("Placing the mines and counting the surrounding mines of a new board")
+public class BoardResetEvent extends jdk.jfr.Event
+{
+	@Label("Rows")
+	public int rows;
+	
+	@Label("Columns")
+	public int columns;
+	
+	@Label("Mines")
+	public int mines;
+	
+	@Label("Parallel")
+	public boolean parallel;
+}
@@ -0,0 +1,104 @@
+/**
+ * Histogram - Counts recorded values in buckets that double in size
+ * 
+ * Bucket 0 holds zero and bucket b holds the values from 2^(b-1) to 2^b - 1, so 64 buckets cover
+ * every long and percentiles are accurate to within a factor of two. Recording never locks, so
+ * it can be called from any thread on every move.
+ * 
+ * @author Dylan Weber
+ * @version 6/3/2018
+ */
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+public class Histogram
+{
+	private static final int BUCKETS = 65;
+	
+	private final String name;
+	private final String unit;
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder sum = new LongAdder();
+	
+	Histogram(String name, String unit)
+	{
+		this.name = name;
+		this.unit = unit;
+	}
+	
+	//Negative values are counted as zero
+	public void record(long value)
+	{
+		value = Math.max(value, 0);
+		buckets.incrementAndGet(64 - Long.numberOfLeadingZeros(value));
+		count.increment();
+		sum.add(value);
+	}
+	
+	public String getName()
+	{
+		return name;
+	}
+	
+	public String getUnit()
+	{
+		return unit;
+	}
+	
+	public long getCount()
+	{
+		return count.sum();
+	}
+	
+	public double getMean()
+	{
+		long values = count.sum();
+		return values == 0 ? 0 : (double) sum.sum() / values;
+	}
+	
+	/**
+	 * Returns the largest value in the bucket that the given fraction of the values fall into or below.
+	 * For example getPercentile(0.99) is no smaller than 99% of the recorded values.
+	 */
+	public long getPercentile(double fraction)
+	{
+		long[] counts = new long[BUCKETS];
+		long total = 0;
+		for(int bucket = 0; bucket < BUCKETS; bucket++)
+		{
+			counts[bucket] = buckets.get(bucket);
+			total += counts[bucket];
+		}
+		
+		long rank = (long) Math.ceil(total * Math.min(Math.max(fraction, 0), 1));
+		long seen = 0;
+		for(int bucket = 0; bucket < BUCKETS; bucket++)
+		{
+			seen += counts[bucket];
+			if(seen >= rank && counts[bucket] > 0)
+			{
+				return bucket == 64 ? Long.MAX_VALUE : (1L << bucket) - 1;
+			}
+		}
+		return 0;
+	}
+	
+	//Returns the largest value in the highest bucket that has any values
+	public long getMaximum()
+	{
+		return getPercentile(1);
+	}
+	
+	public void reset()
+	{
+		for(int bucket = 0; bucket < BUCKETS; bucket++)
+		{
+			buckets.set(bucket, 0);
+		}
+		count.reset();
+		sum.reset();
+	}
+}
@@ -0,0 +1,102 @@
+/**
+ * Metrics - The histograms that record how long the game spends resetting, revealing and drawing
+ * 
+ * Every histogram is registered here by name so that all of them can be written out together, either
+ * to a file (set the minesweeper.metrics system property to have the UI write one on exit) or by the
+ * server's /metrics request. The same measurements are sent to Java Flight Recorder as events, so they
+ * can be lined up with the rest of a recording.
+ * 
+ * @author Dylan Weber
+ * @version 6/3/2018
+ */
+package metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+public final class Metrics
+{
+	//The system property that sets where the UI writes its metrics when it closes
+	public static final String METRICS_FILE_PROPERTY = "minesweeper.metrics";
+	
+	private static final List<Histogram> HISTOGRAMS = new ArrayList<>();
+	
+	public static final Histogram BOARD_RESET_TIME = histogram("board.reset.time", "ns");
+	public static final Histogram REVEAL_TIME = histogram("board.reveal.time", "ns");
+	public static final Histogram TILES_OPENED = histogram("board.reveal.tilesOpened", "tiles");
+	public static final Histogram FLOOD_DEPTH = histogram("board.reveal.floodDepth", "steps");
+	public static final Histogram NO_GUESS_TIME = histogram("board.noGuess.time", "ns");
+	public static final Histogram OPENINGS_TIME = histogram("board.openings.time", "ns");
+	public static final Histogram UI_RESET_TIME = histogram("ui.reset.time", "ns");
+	public static final Histogram UI_FLUSH_TIME = histogram("ui.flush.time", "ns");
+	public static final Histogram TILES_REDRAWN = histogram("ui.flush.tilesRedrawn", "tiles");
+	public static final Histogram SERVER_REQUEST_TIME = histogram("server.request.time", "ns");
+	
+	private Metrics()
+	{
+	}
+	
+	//Creates a histogram and registers it so that it is included when the metrics are written
+	public static Histogram histogram(String name, String unit)
+	{
+		Histogram histogram = new Histogram(name, unit);
+		synchronized(HISTOGRAMS)
+		{
+			HISTOGRAMS.add(histogram);
+		}
+		return histogram;
+	}
+	
+	public static List<Histogram> getHistograms()
+	{
+		synchronized(HISTOGRAMS)
+		{
+			return new ArrayList<>(HISTOGRAMS);
+		}
+	}
+	
+	//Writes every histogram that has values as a JSON object keyed by name. Numbers are written the same in every locale.
+	public static void writeJson(StringBuilder json)
+	{
+		json.append('{');
+		boolean first = true;
+		for(Histogram histogram : getHistograms())
+		{
+			if(histogram.getCount() == 0)
+			{
+				continue;
+			}
+			if(!first)
+			{
+				json.append(',');
+			}
+			first = false;
+			
+			json.append("\n  \"").append(histogram.getName()).append("\": {")
+				.append("\"unit\": \"").append(histogram.getUnit()).append("\", ")
+				.append("\"count\": ").append(histogram.getCount()).append(", ")
+				.append("\"mean\": ").append(String.format(Locale.ROOT, "%.1f", histogram.getMean())).append(", ")
+				.append("\"p50\": ").append(histogram.getPercentile(0.5)).append(", ")
+				.append("\"p90\": ").append(histogram.getPercentile(0.9)).append(", ")
+				.append("\"p99\": ").append(histogram.getPercentile(0.99)).append(", ")
+				.append("\"max\": ").append(histogram.getMaximum()).append('}');
+		}
+		json.append("\n}\n");
+	}
+	
+	public static void dump(Path file) throws IOException
+	{
+		StringBuilder json = new StringBuilder();
+		writeJson(json);
+		try(Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8))
+		{
+			writer.append(json);
+		}
+	}
+}
@@ -0,0 +1,35 @@
+/**
+ * RevealEvent - Flight Recorder event for a reveal and the opening it floods
+ * 
+ * @author Dylan Weber
+ * @version 6/3/2018
+ */
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("minesweeper.Reveal")
+@Label("Reveal")
+@Category("Minesweeper")
+@Description("Revealing a tile, including the flood fill of any opening")
+public class RevealEvent extends jdk.jfr.Event
+{
+	@Label("Row")
+	public int row;
+	
+	@Label("Column")
+	public int column;
+	
+	@Label("Tiles Opened")
+	public int tilesOpened;
+	
+	@Label("Flood Depth")
+	@Description("The number of steps the flood fill took to reach the furthest opened tile, or 0 when the opening was looked up")
+	public int floodDepth;
+	
+	@Label("Board Tiles")
+	public long boardTiles;
+}
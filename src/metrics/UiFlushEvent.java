@@ -0,0 +1,25 @@
+/**
+ * UiFlushEvent - Flight Recorder event for redrawing the tiles that changed during a pulse
+ * 
+ * @author Dylan Weber
+ * @version 6/3/2018
+ */
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("minesweeper.UiFlush")
+@Label("UI Flush")
+@Category("Minesweeper")
+@Description("Redrawing the tiles that changed since the last JavaFX pulse")
+public class UiFlushEvent extends jdk.jfr.Event
+{
+	@Label("Tiles Redrawn")
+	public int tilesRedrawn;
+	
+	@Label("Full Redraw")
+	public boolean fullRedraw;
+}
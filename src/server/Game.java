@@ -0,0 +1,178 @@
+/**
+ * Game - A single board hosted by the GameServer
+ * 
+ * Each game has its own lock, so moves on one game never wait for moves on another. While a move is
+ * made the game listens to its board and collects the tiles that changed, which are all that is sent back.
+ * 
+ * @author Dylan Weber
+ * @version 6/3/2018
+ */
+package server;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import game.BoardListener;
+import game.MinesweeperBoard;
+import game.MinesweeperBoard.FirstRevealMode;
+import game.Tile;
+import game.Tile.FlagState;
+
+class Game implements BoardListener
+{
+	//Codes sent for each changed tile. Revealed tiles are sent as their number of surrounding mines (0 to 8).
+	static final int REVEALED_MINE = 9;
+	static final int HIDDEN = 10;
+	static final int FLAGGED = 11;
+	static final int QUESTION_MARKED = 12;
+	
+	private final long id;
+	private final MinesweeperBoard board;
+	//The tiles changed by the current move, in the order they changed, with no tile listed twice
+	private final BitSet changed = new BitSet();
+	private int[] changedTiles = new int[64];
+	private int numberOfChangedTiles;
+	
+	Game(long id, int rows, int columns, int numberOfMines, long seed, FirstRevealMode firstRevealMode)
+	{
+		this.id = id;
+		//The board is created small and then reset with the seed so that it is only generated once
+		this.board = new MinesweeperBoard(1, 1, 0);
+		board.resetBoard(rows, columns, numberOfMines, seed);
+		board.setFirstRevealMode(firstRevealMode);
+		board.setListener(this);
+	}
+	
+	long getId()
+	{
+		return id;
+	}
+	
+	//Writes the game's size and seed as JSON
+	synchronized void describe(StringBuilder json)
+	{
+		json.append("{\"id\":").append(id)
+			.append(",\"rows\":").append(board.numberOfRows())
+			.append(",\"columns\":").append(board.numberOfColumns())
+			.append(",\"mines\":").append(board.getNumberOfMines())
+			.append(",\"seed\":").append(board.getSeed());
+		appendStatus(json);
+		json.append('}');
+	}
+	
+	//Reveals a tile the same way a left click does and writes the tiles that changed as JSON
+	synchronized void reveal(int row, int column, StringBuilder json)
+	{
+		Tile tile = board.getTile(row, column);
+		if(tile != null && isPlayable(tile) && tile.getFlagState() == FlagState.NONE)
+		{
+			board.revealTile(row, column);
+			
+			//The whole board is shown once the game is over
+			if(board.gameLost() || board.gameWon())
+			{
+				board.revealAllTiles();
+			}
+		}
+		writeChanges(json);
+	}
+	
+	//Chords on a revealed number the same way a middle click does and writes the tiles that changed as JSON
+	synchronized void chord(int row, int column, StringBuilder json)
+	{
+		if(!board.gameLost() && !board.gameWon())
+		{
+			board.chordTile(row, column);
+			
+			if(board.gameLost() || board.gameWon())
+			{
+				board.revealAllTiles();
+			}
+		}
+		writeChanges(json);
+	}
+	
+	//Sets the flag on a tile and writes the tiles that changed as JSON
+	synchronized void flag(int row, int column, FlagState flagState, StringBuilder json)
+	{
+		Tile tile = board.getTile(row, column);
+		if(tile != null && isPlayable(tile))
+		{
+			tile.setFlagState(flagState);
+		}
+		writeChanges(json);
+	}
+	
+	private boolean isPlayable(Tile tile)
+	{
+		return !tile.isRevealed() && !board.gameLost() && !board.gameWon();
+	}
+	
+	@Override
+	public void tileChanged(int row, int column)
+	{
+		int index = row * board.numberOfColumns() + column;
+		if(!changed.get(index))
+		{
+			changed.set(index);
+			if(numberOfChangedTiles == changedTiles.length)
+			{
+				changedTiles = Arrays.copyOf(changedTiles, numberOfChangedTiles * 2);
+			}
+			changedTiles[numberOfChangedTiles++] = index;
+		}
+	}
+	
+	/**
+	 * Writes the result of a move as {"won":..,"lost":..,"tiles":[row,column,code,...]}, where the tiles
+	 * are a flat list of three numbers per changed tile to keep responses small.
+	 */
+	private void writeChanges(StringBuilder json)
+	{
+		int columns = board.numberOfColumns();
+		json.append('{');
+		appendStatus(json);
+		json.append(",\"tiles\":[");
+		for(int i = 0; i < numberOfChangedTiles; i++)
+		{
+			int index = changedTiles[i];
+			int row = index / columns, column = index % columns;
+			if(i > 0)
+			{
+				json.append(',');
+			}
+			json.append(row).append(',').append(column).append(',').append(codeOf(board.getTile(row, column)));
+			changed.clear(index);
+		}
+		json.append("]}");
+		
+		numberOfChangedTiles = 0;
+	}
+	
+	private void appendStatus(StringBuilder json)
+	{
+		if(json.charAt(json.length() - 1) != '{')
+		{
+			json.append(',');
+		}
+		json.append("\"won\":").append(board.gameWon()).append(",\"lost\":").append(board.gameLost());
+	}
+	
+	private static int codeOf(Tile tile)
+	{
+		if(tile.isRevealed())
+		{
+			return tile.isMine() ? REVEALED_MINE : tile.getNumberOfSurroundingMines();
+		}
+		
+		switch(tile.getFlagState())
+		{
+			case FLAG:
+				return FLAGGED;
+			case QUESTION_MARK:
+				return QUESTION_MARKED;
+			default:
+				return HIDDEN;
+		}
+	}
+}
@@ -0,0 +1,315 @@
+/**
+ * GameServer - Hosts many games of minesweeper at once over HTTP
+ * 
+ * Requests:
+ *   POST   /games?rows=&columns=&mines=[&seed=][&firstReveal=]   starts a game and returns its id, size and seed
+ *   GET    /games/{id}                            returns the game's size, seed and whether it is over
+ *   POST   /games/{id}/reveal?row=&column=        reveals a tile and returns the tiles that changed
+ *   POST   /games/{id}/chord?row=&column=         reveals around a number whose flags match it
+ *   POST   /games/{id}/flag?row=&column=&state=   sets a tile's flag (NONE, FLAG or QUESTION_MARK)
+ *   DELETE /games/{id}                            ends a game
+ *   GET    /metrics                               returns the timing histograms in Metrics as JSON
+ * firstReveal is SAFE_TILE (the default), SAFE_OPENING or NO_GUESS, as in MinesweeperBoard.FirstRevealMode.
+ * NO_GUESS games can have at most MinesweeperBoard.MAX_NO_GUESS_TILES tiles.
+ * 
+ * The engine doesn't depend on JavaFX, so the server runs without a display. Each request is handled on
+ * its own virtual thread when the JVM has them, and on a thread pool otherwise.
+ * 
+ * @author Dylan Weber
+ * @version 6/3/2018
+ */
+package server;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import game.MinesweeperBoard;
+import game.MinesweeperBoard.FirstRevealMode;
+import game.Tile.FlagState;
+import metrics.Metrics;
+
+public class GameServer implements HttpHandler
+{
+	public static final int DEFAULT_PORT = 8080;
+	//Larger games would let a single request use up the server's memory
+	public static final int MAX_TILES_PER_GAME = 1 << 24;
+	
+	private final Map<Long, Game> games = new ConcurrentHashMap<>();
+	private final AtomicLong nextGameId = new AtomicLong(1);
+	private final SplittableRandom seeds = new SplittableRandom();
+	private HttpServer httpServer;
+	private ExecutorService executor;
+	
+	//Starts listening on the loopback address. A port of 0 picks any free port.
+	public void start(int port) throws IOException
+	{
+		httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+		executor = createExecutor();
+		httpServer.setExecutor(executor);
+		httpServer.createContext("/games", this);
+		httpServer.createContext("/metrics", new HttpHandler()
+		{
+			@Override
+			public void handle(HttpExchange exchange) throws IOException
+			{
+				StringBuilder json = new StringBuilder();
+				Metrics.writeJson(json);
+				send(exchange, 200, json);
+				exchange.close();
+			}
+		});
+		httpServer.start();
+	}
+	
+	public void stop()
+	{
+		httpServer.stop(0);
+		executor.shutdown();
+	}
+	
+	public int getPort()
+	{
+		return httpServer.getAddress().getPort();
+	}
+	
+	public int numberOfGames()
+	{
+		return games.size();
+	}
+	
+	//Uses a virtual thread per request when the JVM has them (Java 21 and later), and a thread per core otherwise
+	private static ExecutorService createExecutor()
+	{
+		try
+		{
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		}
+		catch(ReflectiveOperationException e)
+		{
+			return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 2);
+		}
+	}
+	
+	@Override
+	public void handle(HttpExchange exchange) throws IOException
+	{
+		long start = System.nanoTime();
+		try
+		{
+			StringBuilder json = new StringBuilder(128);
+			int status = route(exchange, json);
+			Metrics.SERVER_REQUEST_TIME.record(System.nanoTime() - start);
+			send(exchange, status, json);
+		}
+		catch(IllegalArgumentException e)
+		{
+			send(exchange, 400, error(e.getMessage()));
+		}
+		finally
+		{
+			exchange.close();
+		}
+	}
+	
+	//Handles a request, writing the response to json, and returns the response's status code
+	private int route(HttpExchange exchange, StringBuilder json)
+	{
+		String method = exchange.getRequestMethod();
+		String[] path = exchange.getRequestURI().getPath().split("/");
+		Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+		
+		//path[0] is empty and path[1] is "games"
+		if(path.length == 2)
+		{
+			if(!method.equals("POST"))
+			{
+				json.append(error("Use POST to start a game"));
+				return 405;
+			}
+			return createGame(query, json);
+		}
+		
+		Game game = games.get(parseId(path[2]));
+		if(game == null)
+		{
+			json.append(error("No game with id " + path[2]));
+			return 404;
+		}
+		
+		if(path.length == 3)
+		{
+			switch(method)
+			{
+				case "GET":
+					game.describe(json);
+					return 200;
+				case "DELETE":
+					games.remove(game.getId());
+					json.append("{}");
+					return 200;
+				default:
+					json.append(error("Use GET or DELETE on a game"));
+					return 405;
+			}
+		}
+		
+		if(path.length != 4 || !method.equals("POST"))
+		{
+			json.append(error("Unknown request"));
+			return 404;
+		}
+		
+		int row = intParameter(query, "row"), column = intParameter(query, "column");
+		switch(path[3])
+		{
+			case "reveal":
+				game.reveal(row, column, json);
+				return 200;
+			case "chord":
+				game.chord(row, column, json);
+				return 200;
+			case "flag":
+				game.flag(row, column, flagParameter(query), json);
+				return 200;
+			default:
+				json.append(error("Unknown move " + path[3]));
+				return 404;
+		}
+	}
+	
+	private int createGame(Map<String, String> query, StringBuilder json)
+	{
+		int rows = intParameter(query, "rows"), columns = intParameter(query, "columns"), mines = intParameter(query, "mines");
+		if(rows <= 0 || columns <= 0 || mines < 0)
+		{
+			throw new IllegalArgumentException("rows and columns must be positive and mines can't be negative");
+		}
+		if((long) rows * columns > MAX_TILES_PER_GAME)
+		{
+			throw new IllegalArgumentException("Games can have at most " + MAX_TILES_PER_GAME + " tiles");
+		}
+		
+		long seed;
+		if(query.containsKey("seed"))
+		{
+			seed = Long.parseLong(query.get("seed"));
+		}
+		else
+		{
+			synchronized(seeds)
+			{
+				seed = seeds.nextLong();
+			}
+		}
+		
+		FirstRevealMode firstRevealMode = FirstRevealMode.SAFE_TILE;
+		if(query.containsKey("firstReveal"))
+		{
+			firstRevealMode = FirstRevealMode.valueOf(query.get("firstReveal"));
+		}
+		//The first reveal of a game holds its lock, so it can't be left to search a huge board
+		if(firstRevealMode == FirstRevealMode.NO_GUESS && (long) rows * columns > MinesweeperBoard.MAX_NO_GUESS_TILES)
+		{
+			throw new IllegalArgumentException("NO_GUESS games can have at most " + MinesweeperBoard.MAX_NO_GUESS_TILES + " tiles");
+		}
+		
+		Game game = new Game(nextGameId.getAndIncrement(), rows, columns, mines, seed, firstRevealMode);
+		games.put(game.getId(), game);
+		game.describe(json);
+		return 201;
+	}
+	
+	private static long parseId(String id)
+	{
+		try
+		{
+			return Long.parseLong(id);
+		}
+		catch(NumberFormatException e)
+		{
+			return -1;
+		}
+	}
+	
+	private static Map<String, String> parseQuery(String query)
+	{
+		Map<String, String> parameters = new HashMap<>();
+		if(query != null)
+		{
+			for(String parameter : query.split("&"))
+			{
+				int equals = parameter.indexOf('=');
+				if(equals > 0)
+				{
+					parameters.put(parameter.substring(0, equals), parameter.substring(equals + 1));
+				}
+			}
+		}
+		return parameters;
+	}
+	
+	//Throws an IllegalArgumentException (sent back as a 400 response) when the parameter is missing or not a number
+	private static int intParameter(Map<String, String> query, String name)
+	{
+		String value = query.get(name);
+		if(value == null)
+		{
+			throw new IllegalArgumentException("Missing parameter " + name);
+		}
+		return Integer.parseInt(value);
+	}
+	
+	//Throws an IllegalArgumentException when the parameter is missing or not a state a player can set
+	private static FlagState flagParameter(Map<String, String> query)
+	{
+		String value = query.get("state");
+		if(value == null)
+		{
+			throw new IllegalArgumentException("Missing parameter state");
+		}
+		//FALSE_FLAG only marks wrong flags once a game is lost, so players can't set it
+		if(!value.equals("NONE") && !value.equals("FLAG") && !value.equals("QUESTION_MARK"))
+		{
+			throw new IllegalArgumentException("state must be NONE, FLAG or QUESTION_MARK");
+		}
+		return FlagState.valueOf(value);
+	}
+	
+	private static StringBuilder error(String message)
+	{
+		return new StringBuilder("{\"error\":\"").append(String.valueOf(message).replace("\"", "'")).append("\"}");
+	}
+	
+	private static void send(HttpExchange exchange, int status, CharSequence json) throws IOException
+	{
+		byte[] body = json.toString().getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "application/json");
+		exchange.sendResponseHeaders(status, body.length);
+		try(OutputStream response = exchange.getResponseBody())
+		{
+			response.write(body);
+		}
+	}
+	
+	//Runs the server until the program is stopped. The port can be given as the first argument.
+	public static void main(String[] args) throws IOException
+	{
+		GameServer server = new GameServer();
+		server.start(args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT);
+		System.out.println("Minesweeper server listening on http://localhost:" + server.getPort() + "/games");
+	}
+}
@@ -0,0 +1,81 @@
+/**
+ * BoardFileTest - Checks that boards survive being saved and loaded, and that damaged files are refused
+ * 
+ * Usage: java game.BoardFileTest
+ * 
+ * @author Dylan Weber
+ * @version 6/3/2018
+ */
+package game;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+public class BoardFileTest
+{
+	public static void main(String[] args) throws IOException
+	{
+		Path path = Files.createTempFile("board", ".mswp");
+		try
+		{
+			testRoundTrip(path);
+			testMineCountMismatch(path);
+		}
+		finally
+		{
+			Files.deleteIfExists(path);
+		}
+		System.out.println("BoardFileTest passed");
+	}
+	
+	//A saved board loads with the same size, seed and mines
+	private static void testRoundTrip(Path path) throws IOException
+	{
+		MinesweeperBoard saved = new MinesweeperBoard(1, 1, 0);
+		saved.resetBoard(37, 53, 300, 42);
+		BoardFile.write(saved, path);
+		
+		MinesweeperBoard loaded = new MinesweeperBoard(1, 1, 0);
+		BoardFile.read(path, loaded);
+		check(loaded.numberOfRows() == 37 && loaded.numberOfColumns() == 53, "the loaded board has a different size");
+		check(loaded.getNumberOfMines() == 300 && loaded.getSeed() == 42, "the loaded board has a different header");
+		check(Arrays.equals(saved.getCells(), loaded.getCells()), "the loaded board has different mines");
+	}
+	
+	//A file whose header doesn't count the mines in its bitmap is refused and leaves the board alone
+	private static void testMineCountMismatch(Path path) throws IOException
+	{
+		MinesweeperBoard saved = new MinesweeperBoard(1, 1, 0);
+		saved.resetBoard(20, 20, 50, 7);
+		BoardFile.write(saved, path);
+		//The number of mines comes after the magic number, version, rows and columns
+		try(FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE))
+		{
+			channel.write(ByteBuffer.allocate(4).putInt(0, 49), 16);
+		}
+		
+		MinesweeperBoard loaded = new MinesweeperBoard(9, 9, 10);
+		try
+		{
+			BoardFile.read(path, loaded);
+			check(false, "a file with the wrong number of mines was loaded");
+		}
+		catch(IOException e)
+		{
+			check(loaded.numberOfRows() == 9 && loaded.getNumberOfMines() == 10, "a refused file changed the board");
+		}
+	}
+	
+	private static void check(boolean condition, String message)
+	{
+		if(!condition)
+		{
+			throw new AssertionError(message);
+		}
+	}
+}
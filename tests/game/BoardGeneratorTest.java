@@ -0,0 +1,119 @@
+/**
+ * BoardGeneratorTest - Checks that cancelling a board generated in parallel stops it quickly
+ * 
+ * Usage: java game.BoardGeneratorTest
+ * 
+ * @author Dylan Weber
+ * @version 6/3/2018
+ */
+package game;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+public class BoardGeneratorTest
+{
+	//A board big enough to take a while to generate, with one band per row
+	private static final int ROWS = 64, COLUMNS = 1 << 20;
+	
+	public static void main(String[] args) throws InterruptedException
+	{
+		testPoolThreadWatchesOwner();
+		testCancelParallelReset();
+		System.out.println("BoardGeneratorTest passed");
+	}
+	
+	//Mines placed on a pool thread stop when the thread they are placed for is interrupted
+	private static void testPoolThreadWatchesOwner() throws InterruptedException
+	{
+		final AtomicBoolean done = new AtomicBoolean();
+		Thread owner = new Thread(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				//Parking doesn't clear the interrupt, so the thread stays alive and interrupted until the check is done
+				while(!done.get())
+				{
+					LockSupport.parkNanos(1000000);
+				}
+			}
+		});
+		owner.start();
+		owner.interrupt();
+		
+		final BoardGenerator.Generation generation = new BoardGenerator.Generation(owner);
+		final byte[] cells = new byte[1 << 20];
+		try
+		{
+			ForkJoinPool.commonPool().submit(new Callable<int[]>()
+			{
+				@Override
+				public int[] call()
+				{
+					return BoardGenerator.placeMines(cells, 0, cells.length, cells.length / 4, new SplittableRandom(1), generation);
+				}
+			}).get();
+			check(false, "placing mines on a pool thread ignored the interrupted owner");
+		}
+		catch(ExecutionException e)
+		{
+			check(e.getCause() instanceof CancellationException, "placing mines failed with " + e.getCause());
+		}
+		finally
+		{
+			done.set(true);
+			owner.join();
+		}
+	}
+	
+	//Interrupting the thread resetting a large board in parallel ends the reset long before it would have finished
+	private static void testCancelParallelReset() throws InterruptedException
+	{
+		final MinesweeperBoard board = new MinesweeperBoard(1, 1, 0);
+		board.setParallelGeneration(true);
+		board.resetBoard(ROWS, COLUMNS, ROWS * COLUMNS / 3, 4);
+		long start = System.nanoTime();
+		board.resetBoard(ROWS, COLUMNS, ROWS * COLUMNS / 3, 5);
+		long fullReset = System.nanoTime() - start;
+		
+		final AtomicBoolean cancelled = new AtomicBoolean();
+		Thread generator = new Thread(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				try
+				{
+					board.resetBoard(ROWS, COLUMNS, ROWS * COLUMNS / 3, 6);
+				}
+				catch(CancellationException e)
+				{
+					cancelled.set(true);
+				}
+			}
+		});
+		generator.start();
+		Thread.sleep(fullReset / 1000000 / 10 + 1);
+		long interrupted = System.nanoTime();
+		generator.interrupt();
+		generator.join();
+		long stopping = System.nanoTime() - interrupted;
+		
+		check(cancelled.get(), "the reset wasn't cancelled");
+		check(stopping < fullReset / 5, "the reset took " + stopping / 1000000 + " ms to stop after a full reset took " + fullReset / 1000000 + " ms");
+	}
+	
+	private static void check(boolean condition, String message)
+	{
+		if(!condition)
+		{
+			throw new AssertionError(message);
+		}
+	}
+}
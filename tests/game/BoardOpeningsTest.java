@@ -0,0 +1,193 @@
+/**
+ * BoardOpeningsTest - Checks that revealing from the openings opens what a flood fill would, and that the 3BV of
+ * boards too large to keep their openings matches the openings
+ * 
+ * Usage: java game.BoardOpeningsTest
+ * 
+ * @author Dylan Weber
+ * @version 6/3/2018
+ */
+package game;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import game.Tile.FlagState;
+
+public class BoardOpeningsTest
+{
+	//Just over the largest board that keeps its openings
+	private static final int LARGE_ROWS = 2050, LARGE_COLUMNS = 2050;
+	
+	public static void main(String[] args)
+	{
+		testRevealsMatchFloodFill();
+		testCountMatchesOpenings();
+		testLargeBoard();
+		System.out.println("BoardOpeningsTest passed");
+	}
+	
+	//Random games of reveals, flags and chords leave the board as a flood fill of the same moves would
+	private static void testRevealsMatchFloodFill()
+	{
+		Random random = new Random(3);
+		MinesweeperBoard board = new MinesweeperBoard(1, 1, 0);
+		for(int game = 0; game < 2000; game++)
+		{
+			int rows = 1 + random.nextInt(30), columns = 1 + random.nextInt(30);
+			int mines = random.nextInt(rows * columns * 3 / 10 + 1);
+			board.resetBoard(rows, columns, mines, game);
+			byte[] expected = board.getCells().clone();
+			
+			//Starts on a tile that isn't a mine, so the first reveal doesn't move any
+			int first = random.nextInt(rows * columns);
+			while(Cells.isMine(expected[first]))
+			{
+				first = (first + 1) % expected.length;
+			}
+			//0 reveals the tile, 1 marks it and 2 chords on it
+			int index = first, action = 0;
+			for(int moves = 0; moves < 40 && !board.gameLost(); moves++)
+			{
+				int row = index / columns, column = index % columns;
+				if(action == 0)
+				{
+					board.revealTile(row, column);
+					if(!Cells.isRevealed(expected[index]))
+					{
+						expected[index] = Cells.withFlagState(Cells.withRevealed(expected[index], true), FlagState.NONE);
+						floodFill(expected, rows, columns, index);
+					}
+				}
+				else if(action == 1)
+				{
+					//Like the window, only hidden tiles are marked
+					FlagState flagState = random.nextBoolean() ? FlagState.FLAG : FlagState.QUESTION_MARK;
+					if(!Cells.isRevealed(expected[index]))
+					{
+						board.flagTile(row, column, flagState);
+						expected[index] = Cells.withFlagState(expected[index], flagState);
+					}
+				}
+				else
+				{
+					board.chordTile(row, column);
+					chord(expected, rows, columns, index);
+				}
+				check(Arrays.equals(board.getCells(), expected), "a " + rows + "x" + columns + " board with " + mines + " mines and seed " + game + " went wrong after " + (moves + 1) + " moves");
+				
+				index = random.nextInt(rows * columns);
+				action = random.nextInt(3);
+			}
+		}
+	}
+	
+	//Reveals the tiles around every empty tile reachable from index, one tile at a time
+	private static void floodFill(byte[] cells, int rows, int columns, int index)
+	{
+		int[] queue = new int[cells.length];
+		int size = 0;
+		queue[size++] = index;
+		for(int position = 0; position < size; position++)
+		{
+			int current = queue[position];
+			if(Cells.isMine(cells[current]) || Cells.numberOfSurroundingMines(cells[current]) != 0)
+			{
+				continue;
+			}
+			for(int i = current / columns - 1; i <= current / columns + 1; i++)
+			{
+				for(int j = current % columns - 1; j <= current % columns + 1; j++)
+				{
+					if(i >= 0 && i < rows && j >= 0 && j < columns && !Cells.isRevealed(cells[i * columns + j]))
+					{
+						cells[i * columns + j] = Cells.withFlagState(Cells.withRevealed(cells[i * columns + j], true), FlagState.NONE);
+						queue[size++] = i * columns + j;
+					}
+				}
+			}
+		}
+	}
+	
+	//Reveals the unmarked tiles around a revealed number once it has as many flags around it as it says
+	private static void chord(byte[] cells, int rows, int columns, int index)
+	{
+		byte cell = cells[index];
+		if(!Cells.isRevealed(cell) || Cells.isMine(cell) || Cells.numberOfSurroundingMines(cell) == 0)
+		{
+			return;
+		}
+		int flags = 0;
+		for(int i = index / columns - 1; i <= index / columns + 1; i++)
+		{
+			for(int j = index % columns - 1; j <= index % columns + 1; j++)
+			{
+				if(i >= 0 && i < rows && j >= 0 && j < columns && !Cells.isRevealed(cells[i * columns + j]) && Cells.flagState(cells[i * columns + j]) == FlagState.FLAG)
+				{
+					flags++;
+				}
+			}
+		}
+		if(flags != Cells.numberOfSurroundingMines(cell))
+		{
+			return;
+		}
+		for(int i = index / columns - 1; i <= index / columns + 1; i++)
+		{
+			for(int j = index % columns - 1; j <= index % columns + 1; j++)
+			{
+				if(i >= 0 && i < rows && j >= 0 && j < columns && !Cells.isRevealed(cells[i * columns + j]) && Cells.flagState(cells[i * columns + j]) == FlagState.NONE)
+				{
+					cells[i * columns + j] = Cells.withRevealed(cells[i * columns + j], true);
+					floodFill(cells, rows, columns, i * columns + j);
+				}
+			}
+		}
+	}
+	
+	//Counting the 3BV alone gives what listing the openings gives, from boards with no openings to boards with no mines
+	private static void testCountMatchesOpenings()
+	{
+		MinesweeperBoard board = new MinesweeperBoard(1, 1, 0);
+		int[] mineCounts = {0, 1, 20, 150, 399, 400};
+		for(int seed = 0; seed < 20; seed++)
+		{
+			for(int mines : mineCounts)
+			{
+				board.resetBoard(20, 20, mines, seed);
+				int counted = BoardOpenings.countThreeBV(board.getCells(), 20, 20);
+				int listed = new BoardOpenings(board.getCells(), 20, 20).getThreeBV();
+				check(counted == listed, "counted a 3BV of " + counted + " instead of " + listed + " with " + mines + " mines and seed " + seed);
+			}
+		}
+	}
+	
+	//A large board counts its 3BV once, and again when the first reveal moves a mine
+	private static void testLargeBoard()
+	{
+		check(LARGE_ROWS * LARGE_COLUMNS > BoardOpenings.MAX_TILES, "the large board keeps its openings");
+		MinesweeperBoard board = new MinesweeperBoard(1, 1, 0);
+		board.resetBoard(LARGE_ROWS, LARGE_COLUMNS, LARGE_ROWS * LARGE_COLUMNS / 5, 7);
+		int threeBV = board.getThreeBV();
+		check(threeBV == new BoardOpenings(board.getCells(), LARGE_ROWS, LARGE_COLUMNS).getThreeBV(), "the large board counted the wrong 3BV");
+		check(board.getThreeBV() == threeBV, "the large board's 3BV changed without a move");
+		
+		//Revealing a mine first moves it, which changes the numbers around it
+		byte[] cells = board.getCells();
+		int mine = 0;
+		while(!Cells.isMine(cells[mine]))
+		{
+			mine++;
+		}
+		board.revealTile(mine / LARGE_COLUMNS, mine % LARGE_COLUMNS);
+		check(board.getThreeBV() == new BoardOpenings(board.getCells(), LARGE_ROWS, LARGE_COLUMNS).getThreeBV(), "the large board kept its 3BV after mines moved");
+	}
+	
+	private static void check(boolean condition, String message)
+	{
+		if(!condition)
+		{
+			throw new AssertionError(message);
+		}
+	}
+}
@@ -0,0 +1,131 @@
+/**
+ * InfiniteBoardTest - Checks that chunks thrown away and generated again come back the way the player left them
+ * 
+ * Usage: java game.InfiniteBoardTest
+ * 
+ * @author Dylan Weber
+ * @version 6/3/2018
+ */
+package game;
+
+import game.Tile.FlagState;
+
+public class InfiniteBoardTest
+{
+	private static final int SIZE = InfiniteBoard.CHUNK_SIZE;
+	//Few enough chunks that looking at a few chunks' worth of tiles throws some away
+	private static final int LOADED_CHUNKS = 4;
+	
+	public static void main(String[] args)
+	{
+		testRevealAcrossChunks();
+		testNeighbourCounts();
+		testEvictedChunksComeBack();
+		System.out.println("InfiniteBoardTest passed");
+	}
+	
+	//An opening that starts at the corner where four chunks meet spreads into all of them
+	private static void testRevealAcrossChunks()
+	{
+		InfiniteBoard board = new InfiniteBoard(null, 5, 0.15, LOADED_CHUNKS);
+		long opened = board.revealTile(SIZE - 1, SIZE - 1);
+		
+		check(!board.gameLost(), "the first reveal lost the game");
+		check(opened == board.getRevealedTiles(), "the reveal opened " + opened + " tiles but " + board.getRevealedTiles() + " are revealed");
+		for(int i = SIZE - 2; i <= SIZE; i++)
+		{
+			for(int j = SIZE - 2; j <= SIZE; j++)
+			{
+				check(board.isRevealed(i, j), "tile " + i + "," + j + " around the first reveal wasn't opened");
+				check(!board.isMine(i, j), "tile " + i + "," + j + " around the first reveal is a mine");
+			}
+		}
+		
+		//Every revealed empty tile has all of its neighbours revealed, whichever chunk they are in
+		for(int i = -SIZE; i < 3 * SIZE; i++)
+		{
+			for(int j = -SIZE; j < 3 * SIZE; j++)
+			{
+				if(board.isRevealed(i, j) && board.getNumberOfSurroundingMines(i, j) == 0)
+				{
+					for(int k = i - 1; k <= i + 1; k++)
+					{
+						for(int l = j - 1; l <= j + 1; l++)
+						{
+							check(board.isRevealed(k, l), "tile " + k + "," + l + " next to the empty tile " + i + "," + j + " wasn't opened");
+						}
+					}
+				}
+			}
+		}
+	}
+	
+	//The number on every tile matches the mines around it, counted one by one, including at the edges of chunks
+	private static void testNeighbourCounts()
+	{
+		InfiniteBoard board = new InfiniteBoard(null, 9, 0.3, LOADED_CHUNKS);
+		board.revealTile(0, 0);
+		for(int i = -SIZE - 2; i <= SIZE + 2; i++)
+		{
+			for(int j = -SIZE - 2; j <= SIZE + 2; j++)
+			{
+				int mines = 0;
+				for(int k = i - 1; k <= i + 1; k++)
+				{
+					for(int l = j - 1; l <= j + 1; l++)
+					{
+						if((k != i || l != j) && board.isMine(k, l))
+						{
+							mines++;
+						}
+					}
+				}
+				check(board.getNumberOfSurroundingMines(i, j) == mines, "tile " + i + "," + j + " shows " + board.getNumberOfSurroundingMines(i, j) + " mines around it instead of " + mines);
+			}
+		}
+	}
+	
+	//Chunks thrown away and looked at again have the same mines as a board that never threw any away, and keep what the player did
+	private static void testEvictedChunksComeBack()
+	{
+		InfiniteBoard board = new InfiniteBoard(null, 17, 0.2, LOADED_CHUNKS);
+		InfiniteBoard reference = new InfiniteBoard(null, 17, 0.2, 1 << 10);
+		for(InfiniteBoard played : new InfiniteBoard[] {board, reference})
+		{
+			played.setFlagState(3 * SIZE + 5, 7, FlagState.FLAG);
+			played.revealTile(10, 10);
+			played.setFlagState(-SIZE, -SIZE, FlagState.QUESTION_MARK);
+			played.setFlagState(2 * SIZE + 1, -3 * SIZE, FlagState.FLAG);
+		}
+		
+		//Touches a line of far away chunks, more than can be kept loaded
+		for(int chunk = 0; chunk < 8 * LOADED_CHUNKS; chunk++)
+		{
+			board.isMine(100 * SIZE, chunk * SIZE);
+		}
+		check(board.numberOfLoadedChunks() <= LOADED_CHUNKS, board.numberOfLoadedChunks() + " chunks are loaded");
+		check(board.numberOfSavedChunks() >= 3, "only " + board.numberOfSavedChunks() + " chunks had their changes saved");
+		
+		check(board.getFlagState(3 * SIZE + 5, 7) == FlagState.FLAG, "a flag placed before the first reveal was lost");
+		check(board.getFlagState(-SIZE, -SIZE) == FlagState.QUESTION_MARK, "a question mark was lost");
+		check(board.getFlagState(2 * SIZE + 1, -3 * SIZE) == FlagState.FLAG, "a flag was lost");
+		for(int i = -2 * SIZE; i < 2 * SIZE; i++)
+		{
+			for(int j = -2 * SIZE; j < 2 * SIZE; j++)
+			{
+				check(board.isMine(i, j) == reference.isMine(i, j), "tile " + i + "," + j + " came back with a different mine");
+				check(board.isRevealed(i, j) == reference.isRevealed(i, j), "tile " + i + "," + j + " came back revealed differently");
+				check(board.getFlagState(i, j) == reference.getFlagState(i, j), "tile " + i + "," + j + " came back with a different flag");
+			}
+		}
+		check(board.getRevealedTiles() == reference.getRevealedTiles(), "the boards revealed different numbers of tiles");
+	}
+	
+	private static void check(boolean condition, String message)
+	{
+		if(!condition)
+		{
+			throw new AssertionError(message);
+		}
+	}
+}
@@ -0,0 +1,122 @@
+/**
+ * JournalReplayerTest - Checks that replaying a journal rebuilds the board that was played
+ * 
+ * Usage: java game.JournalReplayerTest
+ * 
+ * @author Dylan Weber
+ * @version 6/3/2018
+ */
+package game;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import game.Tile.FlagState;
+
+public class JournalReplayerTest
+{
+	public static void main(String[] args) throws IOException
+	{
+		Path boardPath = Files.createTempFile("board", ".mswp");
+		Path journalPath = Files.createTempFile("moves", ".mjnl");
+		try
+		{
+			testLoadedAfterFirstReveal(boardPath, journalPath);
+			testLoadedWithOtherGeneration(boardPath, journalPath);
+		}
+		finally
+		{
+			Files.deleteIfExists(boardPath);
+			Files.deleteIfExists(journalPath);
+		}
+		System.out.println("JournalReplayerTest passed");
+	}
+	
+	//A board saved after its first reveal moved mines replays with the mines it was saved with
+	private static void testLoadedAfterFirstReveal(Path boardPath, Path journalPath) throws IOException
+	{
+		MinesweeperBoard saved = new MinesweeperBoard(1, 1, 0);
+		saved.resetBoard(30, 40, 400, 11);
+		//A mine is revealed first, so it has to be moved away
+		int mine = firstMine(saved);
+		saved.revealTile(mine / 40, mine % 40);
+		BoardFile.write(saved, boardPath);
+		
+		checkLoadReplays(boardPath, journalPath);
+	}
+	
+	//A board generated in parallel and loaded without it replays with the same mines
+	private static void testLoadedWithOtherGeneration(Path boardPath, Path journalPath) throws IOException
+	{
+		MinesweeperBoard saved = new MinesweeperBoard(1, 1, 0);
+		saved.setParallelGeneration(true);
+		saved.resetBoard(1100, 1000, 150000, 12);
+		BoardFile.write(saved, boardPath);
+		
+		checkLoadReplays(boardPath, journalPath);
+	}
+	
+	//Loads the board into a journaled board, plays on it, then replays the journal and compares every tile
+	private static void checkLoadReplays(Path boardPath, Path journalPath) throws IOException
+	{
+		MinesweeperBoard played = new MinesweeperBoard(1, 1, 0);
+		played.setUndoHistory(true);
+		try(MoveJournal journal = new MoveJournal(journalPath))
+		{
+			played.setJournal(journal);
+			BoardFile.read(boardPath, played);
+			
+			SplittableRandom random = new SplittableRandom(3);
+			int rows = played.numberOfRows(), columns = played.numberOfColumns();
+			for(int move = 0; move < 40 && !played.gameLost(); move++)
+			{
+				int row = random.nextInt(rows), column = random.nextInt(columns);
+				if(move % 5 == 4)
+				{
+					played.flagTile(row, column, FlagState.FLAG);
+				}
+				else
+				{
+					played.revealTile(row, column);
+				}
+			}
+			played.undo();
+			played.setJournal(null);
+		}
+		
+		JournalReplayer replayer = new JournalReplayer(journalPath);
+		MinesweeperBoard replayed = replayer.getBoard();
+		check(replayer.getMoveType(0) == MoveJournal.LOAD, "the loaded board was journaled as a reset");
+		check(Arrays.equals(played.getCells(), replayed.getCells()), "the replayed board differs from the one played");
+		check(played.getRevealedTiles() == replayed.getRevealedTiles(), "the replayed board revealed a different number of tiles");
+		
+		//Seeking back to the load and forward again goes through the loaded mines as well
+		replayer.seek(1);
+		replayer.seek(replayer.numberOfMoves());
+		check(Arrays.equals(played.getCells(), replayed.getCells()), "the board differs after seeking");
+	}
+	
+	private static int firstMine(MinesweeperBoard board)
+	{
+		byte[] cells = board.getCells();
+		for(int index = 0; index < cells.length; index++)
+		{
+			if(Cells.isMine(cells[index]))
+			{
+				return index;
+			}
+		}
+		return 0;
+	}
+	
+	private static void check(boolean condition, String message)
+	{
+		if(!condition)
+		{
+			throw new AssertionError(message);
+		}
+	}
+}
@@ -0,0 +1,83 @@
+/**
+ * MoveHistoryTest - Checks that undoing and redoing a lost game gives back the board as it was lost
+ * 
+ * Usage: java game.MoveHistoryTest
+ * 
+ * @author Dylan Weber
+ * @version 6/3/2018
+ */
+package game;
+
+import java.util.Arrays;
+
+import game.Tile.FlagState;
+
+public class MoveHistoryTest
+{
+	private static final int ROWS = 16, COLUMNS = 16;
+	
+	public static void main(String[] args)
+	{
+		testRedoLoss();
+		System.out.println("MoveHistoryTest passed");
+	}
+	
+	//Revealing the board again after redoing a loss, as the window does, keeps the wrong flags and records nothing
+	private static void testRedoLoss()
+	{
+		MinesweeperBoard board = new MinesweeperBoard(1, 1, 0);
+		board.setUndoHistory(true);
+		board.resetBoard(ROWS, COLUMNS, 60, 21);
+		int safe = firstTile(board, false);
+		board.revealTile(safe / COLUMNS, safe % COLUMNS);
+		
+		int flagged = firstTile(board, false);
+		board.flagTile(flagged / COLUMNS, flagged % COLUMNS, FlagState.FLAG);
+		int mine = firstTile(board, true);
+		board.revealTile(mine / COLUMNS, mine % COLUMNS);
+		check(board.gameLost(), "revealing a mine didn't lose the game");
+		board.revealAllTiles();
+		check(board.getTile(flagged / COLUMNS, flagged % COLUMNS).getFlagState() == FlagState.FALSE_FLAG, "the wrong flag wasn't shown");
+		byte[] lost = board.getCells().clone();
+		
+		check(board.undo(), "there was no move to undo");
+		check(!board.gameLost(), "undoing the loss left the game lost");
+		check(board.getTile(flagged / COLUMNS, flagged % COLUMNS).getFlagState() == FlagState.FLAG, "undoing the loss didn't put the flag back");
+		
+		check(board.redo(), "there was no move to redo");
+		board.revealAllTiles();
+		check(board.gameLost(), "redoing the loss didn't lose the game");
+		check(Arrays.equals(lost, board.getCells()), "revealing the board again after the redo changed it");
+		check(!board.canRedo(), "redoing the loss left a move to redo");
+		
+		//The loss and the reveal are still one move, and the two moves before them are left
+		int undone = 0;
+		while(board.undo())
+		{
+			undone++;
+		}
+		check(undone == 3, "undid " + undone + " moves instead of 3");
+	}
+	
+	//Returns the first tile that isn't revealed and either is or isn't a mine
+	private static int firstTile(MinesweeperBoard board, boolean mine)
+	{
+		byte[] cells = board.getCells();
+		for(int index = 0; index < cells.length; index++)
+		{
+			if(!Cells.isRevealed(cells[index]) && Cells.isMine(cells[index]) == mine)
+			{
+				return index;
+			}
+		}
+		throw new AssertionError("no tile left to pick");
+	}
+	
+	private static void check(boolean condition, String message)
+	{
+		if(!condition)
+		{
+			throw new AssertionError(message);
+		}
+	}
+}
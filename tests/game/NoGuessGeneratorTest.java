@@ -0,0 +1,81 @@
+/**
+ * NoGuessGeneratorTest - Checks that boards needing no guesses are found quickly and the same way every time
+ * 
+ * Usage: java game.NoGuessGeneratorTest
+ * 
+ * @author Dylan Weber
+ * @version 6/3/2018
+ */
+package game;
+
+import java.util.Arrays;
+
+import game.MinesweeperBoard.FirstRevealMode;
+
+public class NoGuessGeneratorTest
+{
+	public static void main(String[] args)
+	{
+		testExpertBoards();
+		testSearchAhead();
+		testLargeDenseBoard();
+		System.out.println("NoGuessGeneratorTest passed");
+	}
+	
+	//Expert boards are found, can be solved, and come out the same for the same seed
+	private static void testExpertBoards()
+	{
+		long start = System.nanoTime();
+		for(int seed = 0; seed < 50; seed++)
+		{
+			byte[] layout = NoGuessGenerator.generate(16, 30, 99, 8, 15, seed);
+			check(layout != null, "no expert board was found for seed " + seed);
+			check(new BoardSolver(layout, 16, 30, 99, Long.MAX_VALUE).solve(8 * 30 + 15), "the expert board for seed " + seed + " needs a guess");
+			check(Arrays.equals(layout, NoGuessGenerator.generate(16, 30, 99, 8, 15, seed)), "seed " + seed + " gave two different boards");
+		}
+		long average = (System.nanoTime() - start) / 100 / 1000000;
+		check(average < 50, "expert boards took " + average + " ms on average");
+	}
+	
+	//A search run ahead of the first reveal gives the board that revealing without it gives
+	private static void testSearchAhead()
+	{
+		MinesweeperBoard direct = new MinesweeperBoard(1, 1, 0);
+		direct.setFirstRevealMode(FirstRevealMode.NO_GUESS);
+		direct.resetBoard(40, 40, 250, 31);
+		direct.revealTile(20, 20);
+		
+		MinesweeperBoard searched = new MinesweeperBoard(1, 1, 0);
+		searched.setFirstRevealMode(FirstRevealMode.NO_GUESS);
+		searched.resetBoard(40, 40, 250, 31);
+		//Moving the search to another tile keeps its seed
+		searched.prepareFirstReveal(3, 3);
+		Runnable search = searched.prepareFirstReveal(20, 20);
+		check(search != null, "no search was prepared for the first reveal");
+		search.run();
+		check(searched.prepareFirstReveal(20, 20) == null, "the search was prepared again after it ran");
+		searched.revealTile(20, 20);
+		
+		check(Arrays.equals(direct.getCells(), searched.getCells()), "searching ahead gave a different board");
+		check(searched.prepareFirstReveal(0, 0) == null, "a search was prepared after the first reveal");
+	}
+	
+	//A board too dense to be free of guesses gives up after a bounded amount of work, and larger boards aren't searched
+	private static void testLargeDenseBoard()
+	{
+		long start = System.nanoTime();
+		check(NoGuessGenerator.generate(200, 200, 8000, 100, 100, 1) == null, "a 200x200 board with 20% mines needed no guesses");
+		long elapsed = (System.nanoTime() - start) / 1000000;
+		check(elapsed < 10000, "giving up on a 200x200 board took " + elapsed + " ms");
+		
+		check(NoGuessGenerator.generate(NoGuessGenerator.MAX_TILES + 1, 1, 0, 0, 0, 1) == null, "a board over the limit was searched");
+	}
+	
+	private static void check(boolean condition, String message)
+	{
+		if(!condition)
+		{
+			throw new AssertionError(message);
+		}
+	}
+}
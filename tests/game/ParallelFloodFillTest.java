@@ -0,0 +1,96 @@
+/**
+ * ParallelFloodFillTest - Checks that opening a huge empty region in parallel opens the same tiles as opening it on
+ * one thread, and that undoing it gives back the board from before
+ * 
+ * Usage: java game.ParallelFloodFillTest
+ * 
+ * @author Dylan Weber
+ * @version 6/3/2018
+ */
+package game;
+
+import java.util.Arrays;
+
+public class ParallelFloodFillTest
+{
+	//Just over the size where boards stop keeping their openings and are flood filled instead
+	private static final int ROWS = 2100, COLUMNS = 2100;
+	//Sparse enough that one opening covers most of the board
+	private static final int MINES = ROWS * COLUMNS / 50;
+	private static final long SEED = 31;
+	
+	public static void main(String[] args)
+	{
+		//The parallel fill is only used with more than one thread in the common pool, however many processors there are
+		System.setProperty("java.util.concurrent.ForkJoinPool.common.parallelism", "4");
+		check(ParallelFloodFill.isWorthwhile(ParallelFloodFill.PARALLEL_FRONTIER_THRESHOLD), "the parallel fill would never be used");
+		
+		testSameTilesOpened();
+		System.out.println("ParallelFloodFillTest passed");
+	}
+	
+	private static void testSameTilesOpened()
+	{
+		MinesweeperBoard serial = createBoard(false);
+		MinesweeperBoard parallel = createBoard(true);
+		check(parallel.getCells().length > BoardOpenings.MAX_TILES, "the board is small enough to keep its openings");
+		
+		byte[] before = parallel.getCells().clone();
+		check(Arrays.equals(before, serial.getCells()), "the boards were different before the opening was revealed");
+		int empty = emptyTile(parallel);
+		int serialOpened = serial.revealTile(empty / COLUMNS, empty % COLUMNS).size();
+		int parallelOpened = parallel.revealTile(empty / COLUMNS, empty % COLUMNS).size();
+		
+		check(serialOpened > ROWS * COLUMNS / 2, "the opening was only " + serialOpened + " tiles");
+		check(parallelOpened == serialOpened, "the parallel fill opened " + parallelOpened + " tiles instead of " + serialOpened);
+		check(parallel.numberOfTilesLeft() == serial.numberOfTilesLeft(), "the boards have different numbers of tiles left");
+		check(Arrays.equals(parallel.getCells(), serial.getCells()), "the parallel fill opened different tiles");
+		byte[] opened = parallel.getCells().clone();
+		
+		check(parallel.undo(), "there was no move to undo");
+		check(Arrays.equals(parallel.getCells(), before), "undoing the parallel fill didn't give back the board from before");
+		check(parallel.redo(), "there was no move to redo");
+		check(Arrays.equals(parallel.getCells(), opened), "redoing the parallel fill opened different tiles");
+	}
+	
+	//Makes the first reveal on a number, so that the opening is revealed as a move of its own
+	private static MinesweeperBoard createBoard(boolean parallelReveal)
+	{
+		MinesweeperBoard board = new MinesweeperBoard(1, 1, 0);
+		board.setUndoHistory(true);
+		board.setParallelReveal(parallelReveal);
+		board.resetBoard(ROWS, COLUMNS, MINES, SEED);
+		byte[] cells = board.getCells();
+		for(int index = 0; index < cells.length; index++)
+		{
+			if(!Cells.isMine(cells[index]) && Cells.numberOfSurroundingMines(cells[index]) > 0)
+			{
+				board.revealTile(index / COLUMNS, index % COLUMNS);
+				return board;
+			}
+		}
+		throw new AssertionError("the board has no numbers");
+	}
+	
+	//Returns the hidden empty tile closest to the start of the middle row
+	private static int emptyTile(MinesweeperBoard board)
+	{
+		byte[] cells = board.getCells();
+		for(int index = ROWS / 2 * COLUMNS; index < cells.length; index++)
+		{
+			if(!Cells.isRevealed(cells[index]) && !Cells.isMine(cells[index]) && Cells.numberOfSurroundingMines(cells[index]) == 0)
+			{
+				return index;
+			}
+		}
+		throw new AssertionError("the board has no empty tiles");
+	}
+	
+	private static void check(boolean condition, String message)
+	{
+		if(!condition)
+		{
+			throw new AssertionError(message);
+		}
+	}
+}
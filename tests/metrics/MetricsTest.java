@@ -0,0 +1,49 @@
+/**
+ * MetricsTest - Checks that the metrics are written as valid JSON whatever the locale
+ * 
+ * Usage: java metrics.MetricsTest
+ * 
+ * @author Dylan Weber
+ * @version 6/3/2018
+ */
+package metrics;
+
+import java.util.Locale;
+
+public class MetricsTest
+{
+	public static void main(String[] args)
+	{
+		testDecimalCommaLocale();
+		System.out.println("MetricsTest passed");
+	}
+	
+	//Locales that write decimals with a comma still get a point in the JSON
+	private static void testDecimalCommaLocale()
+	{
+		Locale locale = Locale.getDefault();
+		Locale.setDefault(Locale.GERMANY);
+		try
+		{
+			Histogram histogram = Metrics.histogram("test.mean", "ns");
+			histogram.record(12);
+			histogram.record(13);
+			
+			StringBuilder json = new StringBuilder();
+			Metrics.writeJson(json);
+			check(json.indexOf("\"mean\": 12.5,") >= 0, "the mean wasn't written with a decimal point: " + json);
+		}
+		finally
+		{
+			Locale.setDefault(locale);
+		}
+	}
+	
+	private static void check(boolean condition, String message)
+	{
+		if(!condition)
+		{
+			throw new AssertionError(message);
+		}
+	}
+}
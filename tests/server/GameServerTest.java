@@ -0,0 +1,85 @@
+/**
+ * GameServerTest - Checks the requests a GameServer accepts and refuses
+ * 
+ * Usage: java server.GameServerTest
+ * 
+ * @author Dylan Weber
+ * @version 6/3/2018
+ */
+package server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+public class GameServerTest
+{
+	public static void main(String[] args) throws IOException
+	{
+		GameServer server = new GameServer();
+		server.start(0);
+		try
+		{
+			testFlagStates(server);
+			testNoGuessSize(server);
+		}
+		finally
+		{
+			server.stop();
+		}
+		System.out.println("GameServerTest passed");
+	}
+	
+	//Players can set NONE, FLAG and QUESTION_MARK, but not the FALSE_FLAG shown on lost games
+	private static void testFlagStates(GameServer server) throws IOException
+	{
+		String game = post(server, "/games?rows=9&columns=9&mines=10&seed=1", 201);
+		String id = game.substring(game.indexOf(":") + 1, game.indexOf(","));
+		String flag = "/games/" + id + "/flag?row=0&column=0&state=";
+		
+		check(post(server, flag + "FLAG", 200).contains("0,0,11"), "a flag was not placed");
+		check(post(server, flag + "QUESTION_MARK", 200).contains("0,0,12"), "a question mark was not placed");
+		post(server, flag + "FALSE_FLAG", 400);
+		post(server, flag + "WRONG", 400);
+		check(post(server, flag + "NONE", 200).contains("0,0,10"), "a flag was not taken off");
+	}
+	
+	//NO_GUESS games are refused on boards too large to search, since the search holds the game's lock
+	private static void testNoGuessSize(GameServer server) throws IOException
+	{
+		post(server, "/games?rows=512&columns=512&mines=40000&firstReveal=NO_GUESS", 201);
+		post(server, "/games?rows=513&columns=512&mines=40000&firstReveal=NO_GUESS", 400);
+		post(server, "/games?rows=513&columns=512&mines=40000&firstReveal=SAFE_OPENING", 201);
+	}
+	
+	//Sends a POST request, checks its status code and returns the response's body
+	private static String post(GameServer server, String path, int expectedStatus) throws IOException
+	{
+		HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + server.getPort() + path).openConnection();
+		connection.setRequestMethod("POST");
+		int status = connection.getResponseCode();
+		check(status == expectedStatus, "POST " + path + " returned " + status + " instead of " + expectedStatus);
+		
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		try(InputStream response = status < 400 ? connection.getInputStream() : connection.getErrorStream())
+		{
+			byte[] buffer = new byte[4096];
+			for(int read = response.read(buffer); read >= 0; read = response.read(buffer))
+			{
+				body.write(buffer, 0, read);
+			}
+		}
+		return new String(body.toByteArray(), StandardCharsets.UTF_8);
+	}
+	
+	private static void check(boolean condition, String message)
+	{
+		if(!condition)
+		{
+			throw new AssertionError(message);
+		}
+	}
+}